@@ -0,0 +1,138 @@
+package com.gamesbykevin.fallingblocks.benchmark;
+
+import com.gamesbykevin.fallingblocks.board.piece.Block;
+import com.gamesbykevin.fallingblocks.board.piece.Piece;
+import com.gamesbykevin.fallingblocks.engine.Field;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The board changes made when lines are cleared or a player is penalized.<br>
+ * These change the board, so each measured batch gets its own freshly filled boards, one per call,
+ * filled before the batch starts so only the changes are timed. A single call is too short to time on its own.
+ * The score is the time of a whole batch, divide by BATCH_SIZE for a single call
+ * @author GOD
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 200, batchSize = ChangeBenchmark.BATCH_SIZE)
+@Measurement(iterations = 100, batchSize = ChangeBenchmark.BATCH_SIZE)
+@Fork(1)
+public class ChangeBenchmark
+{
+    /**
+     * The rows completed before the line clear, counted up from the bottom of the board
+     */
+    public static final int[] CLEARED_ROWS = {1, 3, 6};
+    
+    /**
+     * The number of calls timed together, each on its own board
+     */
+    public static final int BATCH_SIZE = 1000;
+    
+    /**
+     * The board measured
+     */
+    @Param
+    public Fixture fixture;
+    
+    /**
+     * The size of the board
+     */
+    @Param({Fixture.BOARD_REGULAR, Fixture.BOARD_MARATHON})
+    public String board;
+    
+    //a board for each call of the batch
+    private Field[] fields;
+    
+    //the board of the next call
+    private int index;
+    
+    //used to pick the penalty gaps
+    private Random random;
+    
+    //the rows removed by the line clear
+    private int[] cleared;
+    
+    /**
+     * Create the boards
+     */
+    @Setup(Level.Trial)
+    public void create()
+    {
+        this.fields = new Field[BATCH_SIZE];
+        
+        for (int index = 0; index < this.fields.length; index++)
+        {
+            this.fields[index] = Fixture.create(this.board);
+        }
+        
+        this.cleared = new int[this.fields[0].getRows()];
+        this.random = new Random(Fixture.SEED);
+    }
+    
+    /**
+     * Fill every board with the fixture and complete a few rows, as if the player completed them
+     */
+    @Setup(Level.Iteration)
+    public void prepare()
+    {
+        for (Field field : this.fields)
+        {
+            this.fixture.fill(field);
+            
+            for (int offset : CLEARED_ROWS)
+            {
+                final int row = field.getRows() - offset;
+                
+                for (int col = 0; col < field.getCols(); col++)
+                {
+                    if (!field.hasBlock(col, row))
+                        field.setBlock(col, row, new Block(Block.NO_GROUP, Piece.Type.PieceOne));
+                }
+            }
+            
+            field.markCompletedRows();
+        }
+        
+        this.index = 0;
+        this.random.setSeed(Fixture.SEED);
+    }
+    
+    /**
+     * Field.clearRows, the completed rows are removed and the blocks above are dropped
+     * @return The number of rows removed
+     */
+    @Benchmark
+    public int clearRows()
+    {
+        return this.fields[this.index++].clearRows(this.cleared);
+    }
+    
+    /**
+     * Field.addPenalty of a single line
+     * @return The board
+     */
+    @Benchmark
+    public Field addPenalty()
+    {
+        final Field field = this.fields[this.index++];
+        field.addPenalty(1, this.random);
+        return field;
+    }
+}
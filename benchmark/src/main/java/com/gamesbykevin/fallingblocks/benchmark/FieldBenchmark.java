@@ -0,0 +1,136 @@
+package com.gamesbykevin.fallingblocks.benchmark;
+
+import com.gamesbykevin.fallingblocks.board.piece.Piece;
+import com.gamesbykevin.fallingblocks.engine.Field;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The board queries used every time a board is scored or a piece is moved.<br>
+ * Board passes these on to the field and bit masks measured here
+ * @author GOD
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldBenchmark
+{
+    /**
+     * The board measured
+     */
+    @Param
+    public Fixture fixture;
+    
+    /**
+     * The size of the board
+     */
+    @Param({Fixture.BOARD_REGULAR, Fixture.BOARD_MARATHON})
+    public String board;
+    
+    //the board
+    private Field field;
+    
+    //a piece in the middle of the board
+    private Piece piece;
+    
+    /**
+     * Create the board and piece
+     * @throws Exception
+     */
+    @Setup
+    public void setup() throws Exception
+    {
+        this.field = Fixture.create(this.board);
+        this.fixture.fill(this.field);
+        
+        //the piece sits where the fixtures have blocks
+        this.piece = new Piece(this.field.getStartCol(), this.field.getRows() / 2, new Random(Fixture.SEED), this.field.getPool());
+    }
+    
+    /**
+     * Field.getCompletedRowCount
+     * @return The number of completed rows
+     */
+    @Benchmark
+    public int completedRowCount()
+    {
+        return this.field.getCompletedRowCount();
+    }
+    
+    /**
+     * Bitboard.getHoleCount, scored for every placement
+     * @return The number of holes
+     */
+    @Benchmark
+    public int holeCount()
+    {
+        return this.field.getBitboard().getHoleCount();
+    }
+    
+    /**
+     * Bitboard.getBumpiness, scored for every placement
+     * @return The bumpiness
+     */
+    @Benchmark
+    public int totalBumpiness()
+    {
+        return this.field.getBitboard().getBumpiness();
+    }
+    
+    /**
+     * Bitboard.getAggregateHeight, scored for every placement
+     * @return The aggregate height
+     */
+    @Benchmark
+    public int aggregateHeight()
+    {
+        return this.field.getBitboard().getAggregateHeight();
+    }
+    
+    /**
+     * Field.hasBlock(Piece), checked every time a piece moves
+     * @return true if the piece overlaps a block
+     */
+    @Benchmark
+    public boolean hasBlockPiece()
+    {
+        return this.field.hasBlock(this.piece);
+    }
+    
+    /**
+     * Field.hasRoom(Piece), the bounds and collision check of every move, rotation and drop
+     * @return true if the piece fits
+     */
+    @Benchmark
+    public boolean hasRoomPiece()
+    {
+        return this.field.hasRoom(this.piece);
+    }
+    
+    /**
+     * Piece.rotateClockwise, the piece goes through all rotations in turn
+     * @return The rotation of the piece
+     */
+    @Benchmark
+    public int rotateClockwise()
+    {
+        this.piece.rotateClockwise();
+        return this.piece.getRotation();
+    }
+}
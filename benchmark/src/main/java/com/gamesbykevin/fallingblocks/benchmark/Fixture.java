@@ -0,0 +1,151 @@
+package com.gamesbykevin.fallingblocks.benchmark;
+
+import com.gamesbykevin.fallingblocks.board.piece.Block;
+import com.gamesbykevin.fallingblocks.board.piece.Piece;
+import com.gamesbykevin.fallingblocks.engine.Field;
+
+import java.util.Random;
+
+/**
+ * The boards the benchmarks are measured on.<br>
+ * Every fixture is created from a fixed seed, so each run measures the same boards
+ * @author GOD
+ */
+public enum Fixture
+{
+    /**
+     * Nothing on the board, the start of every game
+     */
+    Empty,
+    
+    /**
+     * The bottom half is filled with a single gap in each row, the middle of a good game
+     */
+    HalfFull,
+    
+    /**
+     * Columns of random height with random holes, a board the cpu has to dig out of
+     */
+    Ragged,
+    
+    /**
+     * The challenge blocks of the hardest challenge level
+     */
+    Challenge;
+    
+    /**
+     * The seed used to create every fixture
+     */
+    public static final long SEED = 7;
+    
+    /**
+     * The level used for the challenge fixture
+     */
+    public static final int CHALLENGE_LEVEL = 29;
+    
+    /**
+     * The tallest column of the ragged fixture
+     */
+    public static final int RAGGED_HEIGHT = 14;
+    
+    /**
+     * The chance a cell under the top of a ragged column is a hole
+     */
+    public static final double RAGGED_HOLE_CHANCE = 0.2;
+    
+    /**
+     * The board sizes measured, columns x rows
+     */
+    public static final String BOARD_REGULAR = "10x20", BOARD_LARGE = "12x24", BOARD_MARATHON = "20x40";
+    
+    /**
+     * Create an empty field
+     * @param board The size of the board as columns x rows, for example 10x20
+     * @return The field
+     */
+    public static Field create(final String board)
+    {
+        final int index = board.indexOf('x');
+        
+        if (index < 0)
+            throw new IllegalArgumentException("The board size is expected as columns x rows: " + board);
+        
+        return new Field(Integer.parseInt(board.substring(0, index)), Integer.parseInt(board.substring(index + 1)));
+    }
+    
+    /**
+     * Clear the field and fill it with this fixture
+     * @param field The field to fill
+     */
+    public void fill(final Field field)
+    {
+        field.reset();
+        
+        final Random random = new Random(SEED);
+        
+        switch (this)
+        {
+            case Empty:
+                break;
+            
+            case HalfFull:
+                for (int row = field.getRows() / 2; row < field.getRows(); row++)
+                {
+                    final int gap = random.nextInt(field.getCols());
+                    
+                    for (int col = 0; col < field.getCols(); col++)
+                    {
+                        if (col != gap)
+                            place(field, col, row, random);
+                    }
+                }
+                break;
+            
+            case Ragged:
+                for (int col = 0; col < field.getCols(); col++)
+                {
+                    final int height = random.nextInt(RAGGED_HEIGHT + 1);
+                    
+                    for (int row = field.getRows() - height; row < field.getRows(); row++)
+                    {
+                        //the top of the column is always filled, holes are below it
+                        if (row == field.getRows() - height || random.nextDouble() >= RAGGED_HOLE_CHANCE)
+                            place(field, col, row, random);
+                    }
+                }
+                break;
+            
+            case Challenge:
+                field.populateChallenge(CHALLENGE_LEVEL, random);
+                break;
+        }
+        
+        //a fixture never has completed rows of its own
+        for (int row = 0; row < field.getRows(); row++)
+        {
+            if (field.getBitboard().isComplete(row))
+                field.setBlock(0, row, null);
+        }
+    }
+    
+    /**
+     * Place a block of a random piece type
+     * @param field The field
+     * @param col Column
+     * @param row Row
+     * @param random Object used to pick the type
+     */
+    private static void place(final Field field, final int col, final int row, final Random random)
+    {
+        Piece.Type type;
+        
+        //only the types of real pieces
+        do
+        {
+            type = Piece.Type.values()[random.nextInt(Piece.Type.values().length)];
+        }
+        while (Piece.ignoreType(type));
+        
+        field.setBlock(col, row, new Block(Block.NO_GROUP, type));
+    }
+}
@@ -0,0 +1,111 @@
+package com.gamesbykevin.fallingblocks.benchmark;
+
+import com.gamesbykevin.fallingblocks.ai.Search;
+import com.gamesbykevin.fallingblocks.ai.Weights;
+import com.gamesbykevin.fallingblocks.board.piece.Piece;
+import com.gamesbykevin.fallingblocks.engine.Field;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The full search the cpu runs to find the destination of each piece
+ * @author GOD
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark
+{
+    /**
+     * The board measured
+     */
+    @Param
+    public Fixture fixture;
+    
+    /**
+     * The size of the board, the search grows with the number of columns
+     */
+    @Param({Fixture.BOARD_REGULAR, Fixture.BOARD_LARGE, Fixture.BOARD_MARATHON})
+    public String board;
+    
+    /**
+     * The search depth, 1 for the current piece and 2 to look ahead with the next piece
+     */
+    @Param({"1", "2"})
+    public int depth;
+    
+    /**
+     * The number of threads used to look ahead
+     */
+    @Param({"1"})
+    public int threads;
+    
+    /**
+     * The type of the current piece
+     */
+    @Param({"PieceThree"})
+    public Piece.Type type;
+    
+    /**
+     * The type of the next piece
+     */
+    @Param({"PieceSix"})
+    public Piece.Type next;
+    
+    //the board
+    private Field field;
+    
+    //the search
+    private Search search;
+    
+    /**
+     * Create the board and search
+     */
+    @Setup
+    public void setup()
+    {
+        this.field = Fixture.create(this.board);
+        this.fixture.fill(this.field);
+        
+        this.search = new Search(this.field.getCols(), this.field.getRows());
+        this.search.setDepth(this.depth);
+        this.search.setThreads(this.threads);
+        this.search.setWeights(Weights.DEFAULT);
+    }
+    
+    /**
+     * Stop the search threads
+     */
+    @TearDown
+    public void tearDown()
+    {
+        this.search.shutdown();
+    }
+    
+    /**
+     * Cpu destination search
+     * @return The column of the best placement
+     */
+    @Benchmark
+    public int search()
+    {
+        this.search.search(this.field.getBitboard(), this.type, 0, this.next);
+        return this.search.getCol();
+    }
+}
@@ -0,0 +1,187 @@
+package com.gamesbykevin.fallingblocks.ai;
+
+import java.util.concurrent.Callable;
+
+import com.gamesbykevin.fallingblocks.board.Bitboard;
+import com.gamesbykevin.fallingblocks.board.piece.Piece;
+import com.gamesbykevin.fallingblocks.board.piece.Shape;
+
+/**
+ * Looks ahead a share of the placements found by the search.<br>
+ * Each evaluator has its own copies of the board so several can run at the same time,
+ * the placements are shared with the search and each evaluator only writes the totals of its own share
+ * @author GOD
+ */
+final class Evaluator implements Callable<Void>
+{
+    //our copy of the board before the current piece is placed
+    private final Bitboard board;
+    
+    //our copy of the board we place the next piece on
+    private final Bitboard lookahead;
+    
+    //the placements of the current piece, shared with the search
+    private final int[] rotations, cols, rows;
+    
+    //which placements are looked ahead, shared with the search
+    private final boolean[] expand;
+    
+    //the score of each placement after looking ahead, shared with the search
+    private final double[] totals;
+    
+    //which share of the placements is ours, and the number of shares
+    private final int share, shares;
+    
+    //the board, pieces and number of placements of the current search
+    private Bitboard source;
+    private Piece.Type type, next;
+    private int size;
+    
+    //the weights of the current search
+    private Weights weights;
+    
+    //the number of boards scored
+    private int evaluations;
+    
+    /**
+     * Create a new evaluator
+     * @param board A board with the same dimensions as the boards searched
+     * @param rotations The rotation of each placement of the current piece
+     * @param cols The column of each placement of the current piece
+     * @param rows The row of each placement of the current piece
+     * @param expand Which placements are looked ahead
+     * @param totals Where the score of each placement is stored
+     * @param share Which share of the placements is ours, starting at 0
+     * @param shares The number of shares the placements are split into
+     */
+    Evaluator(final Bitboard board, final int[] rotations, final int[] cols, final int[] rows, final boolean[] expand, final double[] totals, final int share, final int shares)
+    {
+        this.board = new Bitboard(board.getCols(), board.getRows());
+        this.lookahead = new Bitboard(board.getCols(), board.getRows());
+        this.rotations = rotations;
+        this.cols = cols;
+        this.rows = rows;
+        this.expand = expand;
+        this.totals = totals;
+        this.share = share;
+        this.shares = shares;
+    }
+    
+    /**
+     * Assign the search we are helping with
+     * @param source The board before the current piece is placed, it is not changed
+     * @param type The type of the current piece
+     * @param next The type of the next piece
+     * @param size The number of placements of the current piece
+     * @param weights The weights used to score each board
+     */
+    void prepare(final Bitboard source, final Piece.Type type, final Piece.Type next, final int size, final Weights weights)
+    {
+        this.weights = weights;
+        this.source = source;
+        this.type = type;
+        this.next = next;
+        this.size = size;
+    }
+    
+    /**
+     * Look ahead our share of the placements
+     * @return null
+     */
+    @Override
+    public Void call()
+    {
+        //nothing scored yet
+        this.evaluations = 0;
+        
+        //take our own copy of the board
+        this.board.copy(this.source);
+        
+        //the number of placements looked ahead so far by all shares
+        int count = 0;
+        
+        for (int index = 0; index < this.size; index++)
+        {
+            //skip placements outside of the beam
+            if (!this.expand[index])
+                continue;
+            
+            //the placements are dealt out one at a time to each share
+            if (count++ % this.shares != this.share)
+                continue;
+            
+            this.totals[index] = searchNext(index);
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Find the best placement of the next piece after the current piece is placed
+     * @param index The placement of the current piece
+     * @return The best score of the next piece plus the lines completed by the current piece
+     */
+    private double searchNext(final int index)
+    {
+        //get the layout of the current piece
+        final Shape current = Shape.get(this.type, this.rotations[index]);
+        
+        //place the current piece and copy the result
+        Search.place(this.board, current, this.cols[index], this.rows[index]);
+        this.lookahead.copy(this.board);
+        Search.remove(this.board, current, this.cols[index], this.rows[index]);
+        
+        //the completed rows are removed before the next piece appears
+        final int lines = this.lookahead.clearCompleted();
+        
+        //did the next piece fit
+        boolean placed = false;
+        
+        //the best score of the next piece
+        double best = 0;
+        
+        for (int rotation = 0; rotation < Piece.TOTAL_ROTATIONS; rotation++)
+        {
+            //get the layout for this rotation
+            final Shape shape = Shape.get(this.next, rotation);
+            
+            for (int col = 0; col < this.lookahead.getCols(); col++)
+            {
+                //find where the piece will land
+                final int row = this.lookahead.getDropRow(shape, col);
+                
+                //if the piece can't be placed here, skip
+                if (row == Bitboard.NO_ROW)
+                    continue;
+                
+                //score the board with the next piece placed
+                Search.place(this.lookahead, shape, col, row);
+                final double tmpScore = Search.evaluate(this.lookahead, this.weights);
+                this.evaluations++;
+                Search.remove(this.lookahead, shape, col, row);
+                
+                if (tmpScore > best || !placed)
+                {
+                    placed = true;
+                    best = tmpScore;
+                }
+            }
+        }
+        
+        //if the next piece has nowhere to go this is the worst placement
+        if (!placed)
+            return Double.NEGATIVE_INFINITY;
+        
+        //the lines cleared by the current piece are no longer on the board, so add them here
+        return best + (this.weights.getCompletedLines() * lines);
+    }
+    
+    /**
+     * Get the number of boards scored
+     * @return The number of boards scored by our share of the previous search
+     */
+    int getEvaluations()
+    {
+        return this.evaluations;
+    }
+}
@@ -0,0 +1,344 @@
+package com.gamesbykevin.fallingblocks.ai;
+
+import java.util.Arrays;
+
+import com.gamesbykevin.fallingblocks.board.Bitboard;
+import com.gamesbykevin.fallingblocks.board.piece.Kicks;
+import com.gamesbykevin.fallingblocks.board.piece.Piece;
+import com.gamesbykevin.fallingblocks.board.piece.Shape;
+import com.gamesbykevin.fallingblocks.engine.Action;
+
+/**
+ * Finds every placement the piece can reach with the moves of the game.<br>
+ * A breadth first search over the rotation, column and row of the piece, starting where the piece is.
+ * Each state is rotated with the kicks, moved west, moved east and moved down the same way the simulation does,
+ * a state that can't move down is where the piece lands. Moving down goes all the way until the piece rests,
+ * so the piece is only moved sideways or rotated where it starts or where it rests.
+ * The first way a state is reached is the fewest moves. A state also counts the kicks that moved the piece up,
+ * so the search follows the same limit on lifts as the simulation.<br>
+ * Every state of the board has a number, a search only clears a fixed size bitset and creates nothing
+ * @author GOD
+ */
+public final class Moves
+{
+    /**
+     * The rows above the board a piece can be lifted by kicks
+     */
+    public static final int ROWS_ABOVE = 4;
+    
+    //the moves tried from each state, in order
+    private static final Action[] ACTIONS = {Action.MOVE_ROTATE, Action.MOVE_LEFT, Action.MOVE_RIGHT, Action.MOVE_DOWN};
+    
+    //the dimensions of the board
+    private final int cols, rows;
+    
+    //the states that were reached, 1 bit each
+    private final long[] visited;
+    
+    //the states waiting to be moved, in the order they were reached
+    private final int[] queue;
+    
+    //the state each state was reached from, and the move that reached it
+    private final int[] parents;
+    private final Action[] actions;
+    
+    //the states where the piece lands
+    private final int[] placements;
+    
+    //the locations where the piece lands, 1 bit each, so a location reached with a different number of lifts is only a single placement
+    private final long[] landed;
+    
+    //the number of placements of the latest search
+    private int size;
+    
+    /**
+     * Create a new move generator
+     * @param cols The number of columns on the board
+     * @param rows The number of rows on the board
+     */
+    public Moves(final int cols, final int rows)
+    {
+        this.cols = cols;
+        this.rows = rows;
+        
+        final int states = getStates(cols, rows);
+        
+        this.visited = new long[(states + Long.SIZE - 1) / Long.SIZE];
+        this.queue = new int[states];
+        this.parents = new int[states];
+        this.actions = new Action[states];
+        this.placements = new int[states];
+        this.landed = new long[(getLocations(cols, rows) + Long.SIZE - 1) / Long.SIZE];
+    }
+    
+    /**
+     * Get the number of states
+     * @param cols The number of columns on the board
+     * @param rows The number of rows on the board
+     * @return The number of different lifts, rotations, columns and rows a piece can have
+     */
+    public static int getStates(final int cols, final int rows)
+    {
+        return (Kicks.MAX_LIFTS + 1) * getLocations(cols, rows);
+    }
+    
+    /**
+     * Get the number of locations
+     * @param cols The number of columns on the board
+     * @param rows The number of rows on the board
+     * @return The number of different rotations, columns and rows a piece can have
+     */
+    private static int getLocations(final int cols, final int rows)
+    {
+        //every shape has a block at its location, so the column is always on the board
+        return Piece.TOTAL_ROTATIONS * (rows + ROWS_ABOVE) * cols;
+    }
+    
+    /**
+     * Find every placement the piece can reach.<br>
+     * The piece has not been moved up by a kick yet, the search is made before it is moved
+     * @param board The board
+     * @param type The type of piece
+     * @param rotation The current rotation of the piece
+     * @param col The current column of the piece
+     * @param row The current row of the piece
+     * @return The number of placements found, 0 if the piece doesn't fit where it is
+     */
+    public int generate(final Bitboard board, final Piece.Type type, final int rotation, final int col, final int row)
+    {
+        this.size = 0;
+        
+        Arrays.fill(this.visited, 0);
+        Arrays.fill(this.landed, 0);
+        
+        if (!isState(col, row) || !board.hasRoom(Shape.get(type, rotation), col, row))
+            return 0;
+        
+        //the first state has no parent
+        final int start = getState(0, rotation, col, row);
+        visit(start, start, null);
+        
+        int head = 0, tail = 1;
+        this.queue[0] = start;
+        
+        while (head < tail)
+        {
+            final int state = this.queue[head++];
+            
+            final int r = getRotation(state);
+            final int c = getCol(state);
+            final int w = getRow(state);
+            final int l = getLifts(state);
+            
+            final Shape shape = Shape.get(type, r);
+            
+            for (Action action : ACTIONS)
+            {
+                int nextLifts = l, nextRotation = r, nextCol = c, nextRow = w;
+                
+                switch (action)
+                {
+                    case MOVE_ROTATE:
+                        nextRotation = Piece.getRotation(r + 1);
+                        
+                        final Kicks kicks = Kicks.get(type, r);
+                        final int kick = board.getKick(kicks, shape, Shape.get(type, nextRotation), c, w, l);
+                        
+                        if (kick == Kicks.NONE)
+                            continue;
+                        
+                        nextCol += kicks.getCol(kick);
+                        nextRow += kicks.getRow(kick);
+                        
+                        if (kicks.getRow(kick) < 0)
+                            nextLifts++;
+                        break;
+                    
+                    case MOVE_LEFT:
+                        nextCol--;
+                        
+                        if (!board.hasRoom(shape, nextCol, nextRow))
+                            continue;
+                        break;
+                    
+                    case MOVE_RIGHT:
+                        nextCol++;
+                        
+                        if (!board.hasRoom(shape, nextCol, nextRow))
+                            continue;
+                        break;
+                    
+                    case MOVE_DOWN:
+                        nextRow++;
+                        
+                        //the piece can't move down, it lands here unless it is above the top of the board
+                        if (!board.hasRoom(shape, nextCol, nextRow))
+                        {
+                            if (w + shape.getMinRow() >= 0 && land(state))
+                                this.placements[this.size++] = state;
+                            
+                            continue;
+                        }
+                        
+                        //keep moving down until the piece rests, the rows passed on the way are not states of their own
+                        while (board.hasRoom(shape, nextCol, nextRow + 1))
+                        {
+                            nextRow++;
+                        }
+                        break;
+                }
+                
+                //a kick can't lift the piece past the states we number
+                if (!isState(nextCol, nextRow))
+                    continue;
+                
+                final int next = getState(nextLifts, nextRotation, nextCol, nextRow);
+                
+                if (isVisited(next))
+                    continue;
+                
+                visit(next, state, action);
+                this.queue[tail++] = next;
+            }
+        }
+        
+        return this.size;
+    }
+    
+    /**
+     * Get a placement of the latest search
+     * @param index The index of the placement
+     * @return The state where the piece lands
+     */
+    public int getPlacement(final int index)
+    {
+        return this.placements[index];
+    }
+    
+    /**
+     * Fill the path with the moves to a state of the latest search
+     * @param state The state reached
+     * @param path The path to fill, it needs room for a move to every state
+     */
+    public void getPath(final int state, final Path path)
+    {
+        //count the moves first so the path can be filled from the end
+        int length = 0;
+        
+        for (int current = state; this.actions[current] != null; current = this.parents[current])
+        {
+            length++;
+        }
+        
+        path.setLength(length);
+        
+        for (int current = state; this.actions[current] != null; current = this.parents[current])
+        {
+            path.set(--length, this.actions[current], getRotation(current), getCol(current), getRow(current));
+        }
+    }
+    
+    /**
+     * Get the rotation of a state
+     * @param state The state
+     * @return The rotation ranging from 0 - 3
+     */
+    public int getRotation(final int state)
+    {
+        return (state / ((this.rows + ROWS_ABOVE) * this.cols)) % Piece.TOTAL_ROTATIONS;
+    }
+    
+    /**
+     * Get the column of a state
+     * @param state The state
+     * @return The column of the piece
+     */
+    public int getCol(final int state)
+    {
+        return state % this.cols;
+    }
+    
+    /**
+     * Get the row of a state
+     * @param state The state
+     * @return The row of the piece
+     */
+    public int getRow(final int state)
+    {
+        return ((state / this.cols) % (this.rows + ROWS_ABOVE)) - ROWS_ABOVE;
+    }
+    
+    /**
+     * Get the lifts of a state
+     * @param state The state
+     * @return The number of times a kick moved the piece up
+     */
+    private int getLifts(final int state)
+    {
+        return state / getLocations(this.cols, this.rows);
+    }
+    
+    /**
+     * Is the location numbered?
+     * @param col The column of the piece
+     * @param row The row of the piece
+     * @return true if the location has a state, false otherwise
+     */
+    private boolean isState(final int col, final int row)
+    {
+        return (col >= 0 && col < this.cols && row >= -ROWS_ABOVE && row < this.rows);
+    }
+    
+    /**
+     * Get the number of a state
+     * @param lifts The number of times a kick moved the piece up
+     * @param rotation The rotation of the piece
+     * @param col The column of the piece
+     * @param row The row of the piece
+     * @return The state
+     */
+    private int getState(final int lifts, final int rotation, final int col, final int row)
+    {
+        return ((((lifts * Piece.TOTAL_ROTATIONS) + rotation) * (this.rows + ROWS_ABOVE)) + row + ROWS_ABOVE) * this.cols + col;
+    }
+    
+    /**
+     * Flag the location of a state as a place the piece lands
+     * @param state The state where the piece lands
+     * @return true if the piece didn't land at the location yet, false if it landed there with a different number of lifts
+     */
+    private boolean land(final int state)
+    {
+        final int location = state % getLocations(this.cols, this.rows);
+        final long bit = 1L << (location % Long.SIZE);
+        
+        if ((this.landed[location / Long.SIZE] & bit) != 0)
+            return false;
+        
+        this.landed[location / Long.SIZE] |= bit;
+        return true;
+    }
+    
+    /**
+     * Was the state reached?
+     * @param state The state
+     * @return true if the state was reached in the latest search, false otherwise
+     */
+    private boolean isVisited(final int state)
+    {
+        return (this.visited[state / Long.SIZE] & (1L << (state % Long.SIZE))) != 0;
+    }
+    
+    /**
+     * Flag the state as reached
+     * @param state The state
+     * @param parent The state it was reached from
+     * @param action The move that reached it, null for the first state
+     */
+    private void visit(final int state, final int parent, final Action action)
+    {
+        this.visited[state / Long.SIZE] |= (1L << (state % Long.SIZE));
+        this.parents[state] = parent;
+        this.actions[state] = action;
+    }
+}
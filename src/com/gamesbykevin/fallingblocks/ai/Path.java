@@ -0,0 +1,129 @@
+package com.gamesbykevin.fallingblocks.ai;
+
+import com.gamesbykevin.fallingblocks.engine.Action;
+
+/**
+ * The moves that take a piece to a placement.<br>
+ * Each move is kept with the rotation, column and row of the piece after it, so the pilot can tell
+ * which moves are done even when the piece falls on its own.<br>
+ * The size is fixed when created, filling and copying a path creates nothing
+ * @author GOD
+ */
+public final class Path
+{
+    //the action of each move
+    private final Action[] actions;
+    
+    //where the piece is after each move
+    private final int[] rotations, cols, rows;
+    
+    //the number of moves
+    private int length = 0;
+    
+    /**
+     * Create a new empty path
+     * @param capacity The most moves the path can hold
+     */
+    public Path(final int capacity)
+    {
+        this.actions = new Action[capacity];
+        this.rotations = new int[capacity];
+        this.cols = new int[capacity];
+        this.rows = new int[capacity];
+    }
+    
+    /**
+     * Remove every move
+     */
+    public void clear()
+    {
+        this.length = 0;
+    }
+    
+    /**
+     * Set a move
+     * @param index The index of the move
+     * @param action The action
+     * @param rotation The rotation of the piece after the move
+     * @param col The column of the piece after the move
+     * @param row The row of the piece after the move
+     */
+    void set(final int index, final Action action, final int rotation, final int col, final int row)
+    {
+        this.actions[index] = action;
+        this.rotations[index] = rotation;
+        this.cols[index] = col;
+        this.rows[index] = row;
+    }
+    
+    /**
+     * Set the number of moves
+     * @param length The number of moves that are set
+     */
+    void setLength(final int length)
+    {
+        this.length = length;
+    }
+    
+    /**
+     * Copy another path
+     * @param path The path to copy, it needs the same or a smaller capacity
+     */
+    public void copy(final Path path)
+    {
+        System.arraycopy(path.actions, 0, this.actions, 0, path.length);
+        System.arraycopy(path.rotations, 0, this.rotations, 0, path.length);
+        System.arraycopy(path.cols, 0, this.cols, 0, path.length);
+        System.arraycopy(path.rows, 0, this.rows, 0, path.length);
+        this.length = path.length;
+    }
+    
+    /**
+     * Get the number of moves
+     * @return The number of moves in the path
+     */
+    public int getLength()
+    {
+        return this.length;
+    }
+    
+    /**
+     * Get the action of a move
+     * @param index The index of the move
+     * @return The action to take
+     */
+    public Action getAction(final int index)
+    {
+        return this.actions[index];
+    }
+    
+    /**
+     * Get the rotation after a move
+     * @param index The index of the move
+     * @return The rotation of the piece after the move
+     */
+    public int getRotation(final int index)
+    {
+        return this.rotations[index];
+    }
+    
+    /**
+     * Get the column after a move
+     * @param index The index of the move
+     * @return The column of the piece after the move
+     */
+    public int getCol(final int index)
+    {
+        return this.cols[index];
+    }
+    
+    /**
+     * Get the row after a move
+     * @param index The index of the move
+     * @return The row of the piece after the move
+     */
+    public int getRow(final int index)
+    {
+        return this.rows[index];
+    }
+}
@@ -0,0 +1,167 @@
+package com.gamesbykevin.fallingblocks.ai;
+
+import com.gamesbykevin.fallingblocks.board.piece.Piece;
+import com.gamesbykevin.fallingblocks.engine.Action;
+
+/**
+ * Moves the current piece to the destination chosen by the search.<br>
+ * The moves found by the search are replayed in order as inputs, no more than the rate allows, so how quick the cpu plays
+ * is set by the rate. A move is done once the piece has the rotation and column after it and is at least as low,
+ * so the piece falling on its own doesn't throw the pilot off.<br>
+ * Moving down is held until the move is done and let go right away, so the piece doesn't land early while waiting for the next input
+ * @author GOD
+ */
+public final class Pilot
+{
+    /**
+     * The rate where an input can be sent every update
+     */
+    public static final int RATE_UNLIMITED = 0;
+    
+    //do we have the destination
+    private boolean destination = false;
+    
+    //the moves to the destination
+    private final Path path;
+    
+    //the move we are on
+    private int step;
+    
+    //the time between inputs (nanoseconds)
+    private long interval = 0;
+    
+    //the earliest time the next input can be sent (nanoseconds)
+    private long due;
+    
+    //are we holding the piece down
+    private boolean holding = false;
+    
+    /**
+     * Create a new pilot
+     * @param cols The number of columns on the board
+     * @param rows The number of rows on the board
+     */
+    public Pilot(final int cols, final int rows)
+    {
+        this.path = new Path(Moves.getStates(cols, rows));
+    }
+    
+    /**
+     * Set the destination for the current piece
+     * @param found Was a placement found
+     * @param path The moves to the placement, copied
+     */
+    public void setDestination(final boolean found, final Path path)
+    {
+        if (found)
+        {
+            this.path.copy(path);
+        }
+        else
+        {
+            //there is nowhere to place the piece, leave it where it is
+            this.path.clear();
+        }
+        
+        //start with the first move, right away
+        this.step = 0;
+        this.due = Long.MIN_VALUE;
+        this.holding = false;
+        
+        //flag that we have a destination
+        this.destination = true;
+    }
+    
+    /**
+     * Forget the destination
+     */
+    public void reset()
+    {
+        this.destination = false;
+        this.holding = false;
+    }
+    
+    /**
+     * Set how quick the inputs are sent
+     * @param actionsPerSecond The most inputs sent each second, RATE_UNLIMITED to send one every update
+     */
+    public void setRate(final int actionsPerSecond)
+    {
+        this.interval = (actionsPerSecond == RATE_UNLIMITED) ? 0 : 1000000000L / actionsPerSecond;
+    }
+    
+    /**
+     * Do we have a destination?
+     * @return true if we have the location of the piece we want to place, false otherwise
+     */
+    public boolean hasDestination()
+    {
+        return this.destination;
+    }
+    
+    /**
+     * Get the action the piece should have to move toward the destination
+     * @param current The current piece
+     * @param drop Do we force the piece to drop once it is at the destination
+     * @param time The current game time (nanoseconds)
+     * @return The action to take, null to let go of every input
+     */
+    public Action getAction(final Piece current, final boolean drop, final long time)
+    {
+        if (this.holding)
+        {
+            //keep moving down until the move is done, the drop at the destination is held until the piece lands
+            if (this.step >= this.path.getLength() || !isDone(current, this.step))
+                return Action.MOVE_DOWN;
+            
+            //let go and wait for the next input
+            this.holding = false;
+            this.step++;
+        }
+        
+        //it is too soon for another input
+        if (time < this.due)
+            return null;
+        
+        //skip the moves that are done
+        while (this.step < this.path.getLength() && isDone(current, this.step))
+        {
+            this.step++;
+        }
+        
+        final Action action;
+        
+        if (this.step < this.path.getLength())
+        {
+            //take the next move
+            action = this.path.getAction(this.step);
+        }
+        else if (drop)
+        {
+            //the piece will drop here, we can force it to speed up the game
+            action = Action.MOVE_DOWN;
+        }
+        else
+        {
+            //nothing left to do, let the piece fall on its own
+            return null;
+        }
+        
+        //the next input has to wait
+        this.due = time + this.interval;
+        this.holding = (action == Action.MOVE_DOWN);
+        
+        return action;
+    }
+    
+    /**
+     * Is the move done?
+     * @param current The current piece
+     * @param index The index of the move
+     * @return true if the piece has the rotation and column after the move and is at least as low, false otherwise
+     */
+    private boolean isDone(final Piece current, final int index)
+    {
+        return (current.getRotation() == this.path.getRotation(index) && current.getCol() == this.path.getCol(index) && current.getRow() >= this.path.getRow(index));
+    }
+}
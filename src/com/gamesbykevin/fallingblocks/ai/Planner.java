@@ -0,0 +1,207 @@
+package com.gamesbykevin.fallingblocks.ai;
+
+import com.gamesbykevin.fallingblocks.board.Bitboard;
+import com.gamesbykevin.fallingblocks.board.piece.Piece;
+
+/**
+ * Runs the search on a worker thread so the game loop never waits for it.<br>
+ * Each request copies the board into a snapshot, the worker only reads its own copy
+ * and publishes the best placement when the search is done
+ * @author GOD
+ */
+public final class Planner implements Runnable
+{
+    //the board copied when the request was made
+    private final Bitboard pending;
+    
+    //the copy of the board the worker searches
+    private final Bitboard snapshot;
+    
+    //finds the best placement
+    private final Search search;
+    
+    //the piece details of the latest request
+    private Piece.Type type, next;
+    private int start, startCol, startRow;
+    
+    //the latest request, and the request the worker has started
+    private int requested = 0, started = 0;
+    
+    //the request of the published result
+    private int completed = 0;
+    
+    //the published result
+    private boolean found;
+    private final Path path;
+    
+    //the thread doing the work
+    private Thread thread;
+    
+    //is the worker running
+    private boolean running = false;
+    
+    /**
+     * Create a new planner
+     * @param cols The number of columns on the board
+     * @param rows The number of rows on the board
+     * @param depth The search depth
+     * @param beamWidth The search beam width
+     * @param threads The number of threads the search uses to look ahead
+     * @param weights The weights used to score each board
+     */
+    public Planner(final int cols, final int rows, final int depth, final int beamWidth, final int threads, final Weights weights)
+    {
+        this.pending = new Bitboard(cols, rows);
+        this.snapshot = new Bitboard(cols, rows);
+        this.path = new Path(Moves.getStates(cols, rows));
+        
+        //only the worker uses the search
+        this.search = new Search(cols, rows);
+        this.search.setDepth(depth);
+        this.search.setBeamWidth(beamWidth);
+        this.search.setThreads(threads);
+        this.search.setWeights(weights);
+    }
+    
+    /**
+     * Start searching for the best placement of a piece.<br>
+     * Any request that has not finished is replaced
+     * @param board The board we want to place the piece on
+     * @param type The type of piece
+     * @param start The current rotation of the piece
+     * @param startCol The current column of the piece
+     * @param startRow The current row of the piece
+     * @param next The type of the next piece, null if not known
+     */
+    public synchronized void request(final Bitboard board, final Piece.Type type, final int start, final int startCol, final int startRow, final Piece.Type next)
+    {
+        //start the worker the first time it is needed
+        if (this.thread == null)
+        {
+            this.running = true;
+            this.thread = new Thread(this, "Planner");
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+        
+        //copy the board now, it will change while the worker is busy
+        this.pending.copy(board);
+        
+        this.type = type;
+        this.start = start;
+        this.startCol = startCol;
+        this.startRow = startRow;
+        this.next = next;
+        this.requested++;
+        
+        //wake up the worker
+        notifyAll();
+    }
+    
+    /**
+     * Ignore the latest request
+     */
+    public synchronized void cancel()
+    {
+        this.requested++;
+        this.started = this.requested;
+    }
+    
+    /**
+     * Is the result of the latest request ready?
+     * @return true if the worker published the result of the latest request, false otherwise
+     */
+    public synchronized boolean hasResult()
+    {
+        return (this.completed == this.requested);
+    }
+    
+    /**
+     * Was a placement found?
+     * @return true if the latest result has a placement, false otherwise
+     */
+    public synchronized boolean hasFound()
+    {
+        return this.found;
+    }
+    
+    /**
+     * Copy the moves of the latest result
+     * @param path Where the moves from where the piece was to the placement are copied
+     */
+    public synchronized void copyPath(final Path path)
+    {
+        path.copy(this.path);
+    }
+    
+    /**
+     * Stop the worker thread
+     */
+    public synchronized void stop()
+    {
+        this.running = false;
+        
+        //wake up the worker so it can finish
+        notifyAll();
+    }
+    
+    @Override
+    public void run()
+    {
+        try
+        {
+            while (true)
+            {
+                //the request the worker will search
+                final int request;
+                final Piece.Type type, next;
+                final int start, startCol, startRow;
+                
+                synchronized (this)
+                {
+                    //wait for a new request
+                    while (this.running && this.started == this.requested)
+                    {
+                        wait();
+                    }
+                    
+                    if (!this.running)
+                        break;
+                    
+                    //take our own copy of the request
+                    this.snapshot.copy(this.pending);
+                    request = this.requested;
+                    type = this.type;
+                    start = this.start;
+                    startCol = this.startCol;
+                    startRow = this.startRow;
+                    next = this.next;
+                    this.started = request;
+                }
+                
+                //the search is done outside of the lock so the game is never blocked
+                final boolean found = this.search.search(this.snapshot, type, start, startCol, startRow, next);
+                
+                synchronized (this)
+                {
+                    //only publish if a newer request hasn't replaced this one
+                    if (request == this.requested)
+                    {
+                        this.found = found;
+                        this.path.copy(this.search.getPath());
+                        this.completed = request;
+                    }
+                }
+            }
+        }
+        catch (InterruptedException e)
+        {
+            e.printStackTrace();
+        }
+        finally
+        {
+            //the worker owns the search, so it stops the search threads
+            this.search.shutdown();
+        }
+    }
+}
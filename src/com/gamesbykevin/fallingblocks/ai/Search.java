@@ -0,0 +1,561 @@
+package com.gamesbykevin.fallingblocks.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import com.gamesbykevin.fallingblocks.board.Bitboard;
+import com.gamesbykevin.fallingblocks.board.piece.Piece;
+import com.gamesbykevin.fallingblocks.board.piece.Shape;
+import com.gamesbykevin.fallingblocks.engine.Field;
+
+/**
+ * Locate the best place to put a piece.<br>
+ * Every placement the piece can reach from where it is with the moves of the game is placed on a copy of the board and scored,
+ * the moves to the best placement are kept for the pilot,
+ * the game board and piece are never changed and nothing is created during a search on a single thread.<br>
+ * With more than 1 thread the look ahead is split between a fixed pool of threads,
+ * the placements are still compared in the same order so the result is the same as a single thread
+ * @author GOD
+ */
+public final class Search
+{
+    /**
+     * Only the current piece is placed
+     */
+    public static final int DEPTH_CURRENT = 1;
+    
+    /**
+     * Every placement of the current piece is combined with every placement of the next piece
+     */
+    public static final int DEPTH_NEXT = 2;
+    
+    /**
+     * Every placement of the current piece is looked ahead
+     */
+    public static final int BEAM_UNLIMITED = 0;
+    
+    //the copy of the board we place the current piece on
+    private final Bitboard scratch;
+    
+    //finds the placements the current piece can reach
+    private final Moves moves;
+    
+    //every placement of the current piece
+    private final int[] rotations, cols, rows;
+    
+    //the state of each placement of the current piece
+    private final int[] states;
+    
+    //the moves to the best placement
+    private final Path path;
+    
+    //the score of each placement of the current piece
+    private final double[] scores;
+    
+    //which placements of the current piece will be looked ahead
+    private final boolean[] expand;
+    
+    //the score of each placement of the current piece after looking ahead
+    private final double[] totals;
+    
+    //looks ahead all placements on this thread
+    private final Evaluator local;
+    
+    //look ahead a share of the placements each on the thread pool
+    private final List<Evaluator> evaluators = new ArrayList<Evaluator>();
+    
+    //the thread pool, null if we only use this thread
+    private ExecutorService executor;
+    
+    //the number of placements of the current piece
+    private int size;
+    
+    //the best rotation and column found
+    private int rotation, col;
+    
+    //the score of the best placement
+    private double score;
+    
+    //did we find a placement
+    private boolean found = false;
+    
+    //the weights used to score each board
+    private Weights weights = Weights.DEFAULT;
+    
+    //how many pieces do we place
+    private int depth = DEPTH_CURRENT;
+    
+    //how many placements of the current piece do we look ahead
+    private int beamWidth = BEAM_UNLIMITED;
+    
+    //the number of boards scored in the previous search
+    private int evaluations;
+    
+    //the time the previous search took (nanoseconds)
+    private long time;
+    
+    /**
+     * Create a new search
+     * @param cols The number of columns on the board
+     * @param rows The number of rows on the board
+     */
+    public Search(final int cols, final int rows)
+    {
+        this.scratch = new Bitboard(cols, rows);
+        
+        this.moves = new Moves(cols, rows);
+        
+        //there can't be more placements or moves than states of the piece
+        final int capacity = Moves.getStates(cols, rows);
+        
+        this.rotations = new int[capacity];
+        this.cols = new int[capacity];
+        this.rows = new int[capacity];
+        this.states = new int[capacity];
+        this.path = new Path(capacity);
+        this.scores = new double[capacity];
+        this.expand = new boolean[capacity];
+        this.totals = new double[capacity];
+        
+        //the evaluator for a single thread
+        this.local = new Evaluator(this.scratch, this.rotations, this.cols, this.rows, this.expand, this.totals, 0, 1);
+    }
+    
+    /**
+     * Set the number of threads used to look ahead.<br>
+     * Any previous thread pool is shut down
+     * @param threads The number of threads, 1 to do all the work on the thread calling search
+     */
+    public void setThreads(final int threads)
+    {
+        //stop the existing pool
+        shutdown();
+        
+        //with 1 thread there is nothing to create
+        if (threads <= 1)
+            return;
+        
+        //each thread looks ahead its own share
+        for (int share = 0; share < threads; share++)
+        {
+            this.evaluators.add(new Evaluator(this.scratch, this.rotations, this.cols, this.rows, this.expand, this.totals, share, threads));
+        }
+        
+        //the pool threads should not keep the application alive
+        this.executor = Executors.newFixedThreadPool(threads, new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(final Runnable runnable)
+            {
+                final Thread thread = new Thread(runnable, "Search");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+    
+    /**
+     * Get the number of threads
+     * @return The number of threads used to look ahead
+     */
+    public int getThreads()
+    {
+        return (this.executor == null) ? 1 : this.evaluators.size();
+    }
+    
+    /**
+     * Stop the thread pool, if there is one.<br>
+     * The search can still be used afterwards, it will do all the work on the calling thread
+     */
+    public void shutdown()
+    {
+        if (this.executor != null)
+        {
+            this.executor.shutdownNow();
+            this.executor = null;
+        }
+        
+        this.evaluators.clear();
+    }
+    
+    /**
+     * Find the best placement of the piece, starting where new pieces start
+     * @param board The board we want to place the piece on
+     * @param type The type of piece
+     * @param start The current rotation of the piece
+     * @return true if a placement was found, false otherwise
+     */
+    public boolean search(final Bitboard board, final Piece.Type type, final int start)
+    {
+        return search(board, type, start, null);
+    }
+    
+    /**
+     * Find the best placement of the piece, starting where new pieces start
+     * @param board The board we want to place the piece on
+     * @param type The type of piece
+     * @param start The current rotation of the piece
+     * @param next The type of the next piece, null if not known
+     * @return true if a placement was found, false otherwise
+     */
+    public boolean search(final Bitboard board, final Piece.Type type, final int start, final Piece.Type next)
+    {
+        //the same location as Field.getStartCol()
+        return search(board, type, start, board.getCols() / 2, Field.START_ROW, next);
+    }
+    
+    /**
+     * Find the best placement of the piece.<br>
+     * Only the placements the piece can reach from where it is are checked, in the order they are reached.<br>
+     * If the depth is DEPTH_NEXT each placement is scored by the best placement of the next piece after it
+     * @param board The board we want to place the piece on
+     * @param type The type of piece
+     * @param start The current rotation of the piece
+     * @param startCol The current column of the piece
+     * @param startRow The current row of the piece
+     * @param next The type of the next piece, null if not known
+     * @return true if a placement was found, false otherwise
+     */
+    public boolean search(final Bitboard board, final Piece.Type type, final int start, final int startCol, final int startRow, final Piece.Type next)
+    {
+        //track how long the search takes
+        final long begin = System.nanoTime();
+        
+        //nothing scored yet
+        this.evaluations = 0;
+        
+        //start with a copy of the board
+        this.scratch.copy(board);
+        
+        //we don't have a placement yet
+        this.found = false;
+        this.size = 0;
+        
+        //find every placement the piece can reach
+        final int count = this.moves.generate(this.scratch, type, start, startCol, startRow);
+        
+        for (int index = 0; index < count; index++)
+        {
+            final int state = this.moves.getPlacement(index);
+            final int rotation = this.moves.getRotation(state);
+            final int col = this.moves.getCol(state);
+            final int row = this.moves.getRow(state);
+            
+            //get the layout for this rotation
+            final Shape shape = Shape.get(type, rotation);
+            
+            //add piece to the board
+            place(this.scratch, shape, col, row);
+            
+            //what is the score for placing the piece here
+            this.scores[this.size] = evaluate(this.scratch, getWeights());
+            this.evaluations++;
+            
+            //now that we are done scoring we can remove the piece from the board
+            remove(this.scratch, shape, col, row);
+            
+            //remember the placement
+            this.rotations[this.size] = rotation;
+            this.cols[this.size] = col;
+            this.rows[this.size] = row;
+            this.states[this.size] = state;
+            this.size++;
+        }
+        
+        //we can only look ahead if we know the next piece
+        final boolean lookahead = (getDepth() >= DEPTH_NEXT && next != null);
+        
+        //pick the placements we will look ahead
+        if (lookahead)
+        {
+            selectBeam();
+            lookAhead(type, next);
+        }
+        
+        //the index of the best placement
+        int best = -1;
+        
+        for (int index = 0; index < this.size; index++)
+        {
+            //skip placements outside of the beam
+            if (lookahead && !this.expand[index])
+                continue;
+            
+            //the score for this placement
+            final double tmpScore = (lookahead) ? this.totals[index] : this.scores[index];
+            
+            //if this score is better than our high score, or we need to set the score to beat
+            if (tmpScore > this.score || !this.found)
+            {
+                this.found = true;
+                this.score = tmpScore;
+                this.rotation = this.rotations[index];
+                this.col = this.cols[index];
+                best = index;
+            }
+        }
+        
+        //keep the moves to the best placement
+        if (this.found)
+        {
+            this.moves.getPath(this.states[best], this.path);
+        }
+        else
+        {
+            this.path.clear();
+        }
+        
+        //store the time elapsed
+        this.time = System.nanoTime() - begin;
+        
+        return this.found;
+    }
+    
+    /**
+     * Flag the placements of the current piece that will be looked ahead.<br>
+     * These are the placements with the highest score, limited by the beam width
+     */
+    private void selectBeam()
+    {
+        //if there is no limit every placement is looked ahead
+        final boolean all = (getBeamWidth() == BEAM_UNLIMITED || getBeamWidth() >= this.size);
+        
+        for (int index = 0; index < this.size; index++)
+        {
+            this.expand[index] = all;
+        }
+        
+        if (all)
+            return;
+        
+        for (int count = 0; count < getBeamWidth(); count++)
+        {
+            //the best placement that is not flagged yet
+            int best = -1;
+            
+            for (int index = 0; index < this.size; index++)
+            {
+                if (this.expand[index])
+                    continue;
+                
+                if (best < 0 || this.scores[index] > this.scores[best])
+                    best = index;
+            }
+            
+            this.expand[best] = true;
+        }
+    }
+    
+    /**
+     * Score each flagged placement by the best placement of the next piece
+     * @param type The type of the current piece
+     * @param next The type of the next piece
+     */
+    private void lookAhead(final Piece.Type type, final Piece.Type next)
+    {
+        //do all the work on this thread
+        if (this.executor == null)
+        {
+            this.local.prepare(this.scratch, type, next, this.size, getWeights());
+            this.local.call();
+            this.evaluations += this.local.getEvaluations();
+            return;
+        }
+        
+        for (Evaluator evaluator : this.evaluators)
+        {
+            evaluator.prepare(this.scratch, type, next, this.size, getWeights());
+        }
+        
+        try
+        {
+            //wait for every share to finish
+            for (Future<Void> future : this.executor.invokeAll(this.evaluators))
+            {
+                future.get();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            throw new RuntimeException(e);
+        }
+        catch (ExecutionException e)
+        {
+            throw new RuntimeException(e.getCause());
+        }
+        
+        for (Evaluator evaluator : this.evaluators)
+        {
+            this.evaluations += evaluator.getEvaluations();
+        }
+    }
+    
+    /**
+     * Score the board
+     * @param board The board we want to score
+     * @param weights The weight of each part of the score
+     * @return The weighted score of the board, the higher the better
+     */
+    public static double evaluate(final Bitboard board, final Weights weights)
+    {
+        //what is the score for the board
+        double score = 0;
+        
+        //calculate/add aggregate height score
+        score += (weights.getAggregateHeight() * board.getAggregateHeight());
+        
+        //calculate/add completed row(s) score
+        score += (weights.getCompletedLines() * board.getCompletedCount());
+        
+        //calculate/add hole count score
+        score += (weights.getHoles() * board.getHoleCount());
+        
+        //calculate/add bumpiness score
+        score += (weights.getBumpiness() * board.getBumpiness());
+        
+        return score;
+    }
+    
+    /**
+     * Add the piece to a copy of the board
+     * @param board The copy of the board
+     * @param shape The layout of the piece
+     * @param col The column of the piece
+     * @param row The row of the piece
+     */
+    static void place(final Bitboard board, final Shape shape, final int col, final int row)
+    {
+        for (int index = 0; index < shape.getSize(); index++)
+        {
+            board.fill(col + shape.getCol(index), row + shape.getRow(index), Bitboard.KIND_BLOCK);
+        }
+    }
+    
+    /**
+     * Remove the piece from a copy of the board
+     * @param board The copy of the board
+     * @param shape The layout of the piece
+     * @param col The column of the piece
+     * @param row The row of the piece
+     */
+    static void remove(final Bitboard board, final Shape shape, final int col, final int row)
+    {
+        for (int index = 0; index < shape.getSize(); index++)
+        {
+            board.clear(col + shape.getCol(index), row + shape.getRow(index));
+        }
+    }
+    
+    /**
+     * Set the weights
+     * @param weights The weights used to score each board
+     */
+    public void setWeights(final Weights weights)
+    {
+        this.weights = weights;
+    }
+    
+    /**
+     * Get the weights
+     * @return The weights used to score each board
+     */
+    public Weights getWeights()
+    {
+        return this.weights;
+    }
+    
+    /**
+     * Set the depth
+     * @param depth DEPTH_CURRENT or DEPTH_NEXT
+     */
+    public void setDepth(final int depth)
+    {
+        this.depth = depth;
+    }
+    
+    /**
+     * Get the depth
+     * @return The number of pieces placed for each placement scored
+     */
+    public int getDepth()
+    {
+        return this.depth;
+    }
+    
+    /**
+     * Set the beam width
+     * @param beamWidth The number of the highest scoring placements of the current piece to look ahead, BEAM_UNLIMITED to look ahead all
+     */
+    public void setBeamWidth(final int beamWidth)
+    {
+        this.beamWidth = beamWidth;
+    }
+    
+    /**
+     * Get the beam width
+     * @return The number of placements of the current piece we look ahead, BEAM_UNLIMITED for all
+     */
+    public int getBeamWidth()
+    {
+        return this.beamWidth;
+    }
+    
+    /**
+     * Get the number of boards scored
+     * @return The number of boards scored in the previous search
+     */
+    public int getEvaluations()
+    {
+        return this.evaluations;
+    }
+    
+    /**
+     * Get the time of the previous search
+     * @return The time the previous search took (nanoseconds)
+     */
+    public long getTime()
+    {
+        return this.time;
+    }
+    
+    /**
+     * Get the rotation of the best placement
+     * @return The rotation ranging from 0 - 3
+     */
+    public int getRotation()
+    {
+        return this.rotation;
+    }
+    
+    /**
+     * Get the column of the best placement
+     * @return The column where the piece should be placed
+     */
+    public int getCol()
+    {
+        return this.col;
+    }
+    
+    /**
+     * Get the moves to the best placement
+     * @return The moves from where the piece was to the best placement, empty if no placement was found
+     */
+    public Path getPath()
+    {
+        return this.path;
+    }
+    
+    /**
+     * Get the score of the best placement
+     * @return The score of the board after the piece is placed
+     */
+    public double getScore()
+    {
+        return this.score;
+    }
+}
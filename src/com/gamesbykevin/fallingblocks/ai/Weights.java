@@ -0,0 +1,218 @@
+package com.gamesbykevin.fallingblocks.ai;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+/**
+ * The weights used to score a board.<br>
+ * Weights are stored in a profile, a properties file with one entry per weight,
+ * so tuned weights can be used by the cpu without changing any code
+ * @author GOD
+ */
+public final class Weights
+{
+    /**
+     * The name of the profile the cpu uses, kept next to this class
+     */
+    public static final String PROFILE = "weights.properties";
+    
+    /**
+     * The profile key of the aggregate height weight
+     */
+    public static final String KEY_AGGREGATE_HEIGHT = "aggregateHeight";
+    
+    /**
+     * The profile key of the completed lines weight
+     */
+    public static final String KEY_COMPLETED_LINES = "completedLines";
+    
+    /**
+     * The profile key of the holes weight
+     */
+    public static final String KEY_HOLES = "holes";
+    
+    /**
+     * The profile key of the bumpiness weight
+     */
+    public static final String KEY_BUMPINESS = "bumpiness";
+    
+    /**
+     * The weights used when there is no profile
+     */
+    public static final Weights DEFAULT = new Weights(-0.66569, 0.99275, -0.46544, -0.24077);
+    
+    //aggregate height score weight
+    private final double aggregateHeight;
+    
+    //completed lines score weight
+    private final double completedLines;
+    
+    //holes score weight
+    private final double holes;
+    
+    //bumpi-ness score weight
+    private final double bumpiness;
+    
+    /**
+     * Create the weights
+     * @param aggregateHeight The aggregate height weight
+     * @param completedLines The completed lines weight
+     * @param holes The holes weight
+     * @param bumpiness The bumpiness weight
+     */
+    public Weights(final double aggregateHeight, final double completedLines, final double holes, final double bumpiness)
+    {
+        this.aggregateHeight = aggregateHeight;
+        this.completedLines = completedLines;
+        this.holes = holes;
+        this.bumpiness = bumpiness;
+    }
+    
+    /**
+     * Get the aggregate height weight
+     * @return The score for each filled or covered cell of every column
+     */
+    public double getAggregateHeight()
+    {
+        return this.aggregateHeight;
+    }
+    
+    /**
+     * Get the completed lines weight
+     * @return The score for each completed row
+     */
+    public double getCompletedLines()
+    {
+        return this.completedLines;
+    }
+    
+    /**
+     * Get the holes weight
+     * @return The score for each empty cell below the top of its column
+     */
+    public double getHoles()
+    {
+        return this.holes;
+    }
+    
+    /**
+     * Get the bumpiness weight
+     * @return The score for each difference in height between neighboring columns
+     */
+    public double getBumpiness()
+    {
+        return this.bumpiness;
+    }
+    
+    /**
+     * Get the weights scaled to a length of 1.<br>
+     * Only the direction of the weights changes which placement is best
+     * @return The normalized weights, or these weights if they are all 0
+     */
+    public Weights normalize()
+    {
+        final double length = Math.sqrt(
+            (getAggregateHeight() * getAggregateHeight()) +
+            (getCompletedLines() * getCompletedLines()) +
+            (getHoles() * getHoles()) +
+            (getBumpiness() * getBumpiness())
+        );
+        
+        if (length == 0)
+            return this;
+        
+        return new Weights(getAggregateHeight() / length, getCompletedLines() / length, getHoles() / length, getBumpiness() / length);
+    }
+    
+    /**
+     * Load the weights from the profile kept next to this class
+     * @return The weights of the profile, or the default weights if the profile can't be read
+     */
+    public static Weights load()
+    {
+        final InputStream input = Weights.class.getResourceAsStream(PROFILE);
+        
+        //there is no profile
+        if (input == null)
+            return DEFAULT;
+        
+        try
+        {
+            try
+            {
+                return load(input);
+            }
+            finally
+            {
+                input.close();
+            }
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+            return DEFAULT;
+        }
+    }
+    
+    /**
+     * Load the weights from a profile.<br>
+     * Any weight missing from the profile keeps the default value
+     * @param input The profile to read, it is not closed
+     * @return The weights of the profile
+     * @throws IOException If the profile can't be read
+     * @throws NumberFormatException If a weight is not a number
+     */
+    public static Weights load(final InputStream input) throws IOException
+    {
+        final Properties properties = new Properties();
+        properties.load(input);
+        
+        return new Weights(
+            parse(properties, KEY_AGGREGATE_HEIGHT, DEFAULT.getAggregateHeight()),
+            parse(properties, KEY_COMPLETED_LINES, DEFAULT.getCompletedLines()),
+            parse(properties, KEY_HOLES, DEFAULT.getHoles()),
+            parse(properties, KEY_BUMPINESS, DEFAULT.getBumpiness())
+        );
+    }
+    
+    /**
+     * Read a weight from the profile
+     * @param properties The profile
+     * @param key The key of the weight
+     * @param value The value if the profile does not have the weight
+     * @return The weight
+     */
+    private static double parse(final Properties properties, final String key, final double value)
+    {
+        final String text = properties.getProperty(key);
+        
+        return (text == null) ? value : Double.parseDouble(text.trim());
+    }
+    
+    /**
+     * Write the weights as a profile
+     * @param output Where the profile is written, it is not closed
+     * @param comments A description written at the top of the profile, may be null
+     * @throws IOException If the profile can't be written
+     */
+    public void store(final OutputStream output, final String comments) throws IOException
+    {
+        final Properties properties = new Properties();
+        properties.setProperty(KEY_AGGREGATE_HEIGHT, Double.toString(getAggregateHeight()));
+        properties.setProperty(KEY_COMPLETED_LINES, Double.toString(getCompletedLines()));
+        properties.setProperty(KEY_HOLES, Double.toString(getHoles()));
+        properties.setProperty(KEY_BUMPINESS, Double.toString(getBumpiness()));
+        properties.store(output, comments);
+    }
+    
+    @Override
+    public String toString()
+    {
+        return KEY_AGGREGATE_HEIGHT + "=" + getAggregateHeight() + ", " +
+               KEY_COMPLETED_LINES + "=" + getCompletedLines() + ", " +
+               KEY_HOLES + "=" + getHoles() + ", " +
+               KEY_BUMPINESS + "=" + getBumpiness();
+    }
+}
@@ -0,0 +1,629 @@
+package com.gamesbykevin.fallingblocks.board;
+
+import com.gamesbykevin.fallingblocks.board.piece.Kicks;
+import com.gamesbykevin.fallingblocks.board.piece.Piece;
+import com.gamesbykevin.fallingblocks.board.piece.Shape;
+
+/**
+ * The occupancy of the board where each row is stored as a bit mask.<br>
+ * Bit n of a row represents column n, this is kept in sync with the blocks on the board.
+ * The rows are a ring like the blocks of the field, so pushing every row up only moves the start of the ring
+ * @author GOD
+ */
+public final class Bitboard
+{
+    /**
+     * The piece can't be placed in the column
+     */
+    public static final int NO_ROW = -1;
+    
+    /**
+     * A regular block that was part of a piece
+     */
+    public static final int KIND_BLOCK = 0;
+    
+    /**
+     * A challenge block
+     */
+    public static final int KIND_CHALLENGE = 1;
+    
+    /**
+     * A block in a completed row waiting to be cleared
+     */
+    public static final int KIND_CLEARED = 2;
+    
+    /**
+     * The most columns a board can have, each row is a single long
+     */
+    public static final int MAX_COLS = Long.SIZE;
+    
+    //the occupied cells of each row, used as a ring of rows starting at the base
+    private final long[] rows;
+    
+    //the challenge blocks of each row
+    private final long[] challenge;
+    
+    //the cleared blocks of each row
+    private final long[] cleared;
+    
+    //the dimensions of the board
+    private final int cols;
+    
+    //the mask of a row where every column is filled
+    private final long full;
+    
+    //the height of each column
+    private final int[] heights;
+    
+    //the number of filled cells in each column
+    private final int[] counts;
+    
+    //the index in the masks of the top row
+    private int base = 0;
+    
+    /**
+     * Create a new empty bitboard
+     * @param cols The number of columns, from 1 to MAX_COLS
+     * @param rows The number of rows
+     * @throws IllegalArgumentException If the board does not fit the bit masks
+     */
+    public Bitboard(final int cols, final int rows)
+    {
+        if (cols < 1 || cols > MAX_COLS || rows < 1)
+            throw new IllegalArgumentException("A bitboard can't have " + cols + " columns and " + rows + " rows");
+        
+        this.cols = cols;
+        this.full = (cols == MAX_COLS) ? -1L : (1L << cols) - 1;
+        this.rows = new long[rows];
+        this.challenge = new long[rows];
+        this.cleared = new long[rows];
+        this.heights = new int[cols];
+        this.counts = new int[cols];
+    }
+    
+    /**
+     * Remove all blocks
+     */
+    public void reset()
+    {
+        for (int row = 0; row < getRows(); row++)
+        {
+            this.rows[index(row)] = 0;
+            this.challenge[index(row)] = 0;
+            this.cleared[index(row)] = 0;
+        }
+        
+        for (int col = 0; col < getCols(); col++)
+        {
+            this.heights[col] = 0;
+            this.counts[col] = 0;
+        }
+        
+        //the top row is first in the masks again
+        this.base = 0;
+    }
+    
+    /**
+     * Copy the blocks of another board
+     * @param board The board we want to copy, must have the same dimensions
+     */
+    public void copy(final Bitboard board)
+    {
+        System.arraycopy(board.rows, 0, this.rows, 0, getRows());
+        System.arraycopy(board.challenge, 0, this.challenge, 0, getRows());
+        System.arraycopy(board.cleared, 0, this.cleared, 0, getRows());
+        System.arraycopy(board.heights, 0, this.heights, 0, getCols());
+        System.arraycopy(board.counts, 0, this.counts, 0, getCols());
+        this.base = board.base;
+    }
+    
+    /**
+     * Get the number of columns
+     * @return The total number of columns
+     */
+    public int getCols()
+    {
+        return this.cols;
+    }
+    
+    /**
+     * Get the number of rows
+     * @return The total number of rows
+     */
+    public int getRows()
+    {
+        return this.rows.length;
+    }
+    
+    /**
+     * Get the mask of a completed row
+     * @return The mask where all columns are filled
+     */
+    public long getFull()
+    {
+        return this.full;
+    }
+    
+    /**
+     * Fill the specified location
+     * @param col Column
+     * @param row Row
+     * @param kind The kind of block filling the location (KIND_BLOCK, KIND_CHALLENGE, KIND_CLEARED)
+     */
+    public void fill(final int col, final int row, final int kind)
+    {
+        final long bit = (1L << col);
+        
+        //if the location was empty update the column
+        if ((this.rows[index(row)] & bit) == 0)
+        {
+            this.counts[col]++;
+            
+            if (getRows() - row > this.heights[col])
+                this.heights[col] = getRows() - row;
+        }
+        
+        //mark the location occupied
+        this.rows[index(row)] |= bit;
+        
+        //track the kind of block
+        if (kind == KIND_CHALLENGE)
+        {
+            this.challenge[index(row)] |= bit;
+        }
+        else
+        {
+            this.challenge[index(row)] &= ~bit;
+        }
+        
+        if (kind == KIND_CLEARED)
+        {
+            this.cleared[index(row)] |= bit;
+        }
+        else
+        {
+            this.cleared[index(row)] &= ~bit;
+        }
+    }
+    
+    /**
+     * Empty the specified location
+     * @param col Column
+     * @param row Row
+     */
+    public void clear(final int col, final int row)
+    {
+        //nothing to do if the location is already empty
+        if (!hasBlock(col, row))
+            return;
+        
+        final long bit = ~(1L << col);
+        
+        this.rows[index(row)] &= bit;
+        this.challenge[index(row)] &= bit;
+        this.cleared[index(row)] &= bit;
+        
+        //update the column
+        this.counts[col]--;
+        
+        //if we removed the top block, find the next one below
+        if (getRows() - row == this.heights[col])
+            this.heights[col] = measure(col, row + 1);
+    }
+    
+    /**
+     * Is the specified location occupied?
+     * @param col Column
+     * @param row Row
+     * @return true if a block exists at the location, false otherwise
+     */
+    public boolean hasBlock(final int col, final int row)
+    {
+        return ((this.rows[index(row)] >>> col) & 1) != 0;
+    }
+    
+    /**
+     * Does a block already occupy where a shape would be?<br>
+     * Each row of the shape is a single mask compared with the row of the board,
+     * a cell off the board is never occupied
+     * @param shape The layout of the blocks
+     * @param col The column of the piece location
+     * @param row The row of the piece location
+     * @return true if a block already exists where the shape would be located, false otherwise
+     */
+    public boolean hasBlock(final Shape shape, final int col, final int row)
+    {
+        //the column of bit 0 of the shape masks
+        final int west = col + shape.getMinCol();
+        
+        //the shape is entirely east or west of the board
+        if (west >= getCols() || west + shape.getWidth() <= 0)
+            return false;
+        
+        for (int index = 0; index < shape.getHeight(); index++)
+        {
+            final int y = row + shape.getMinRow() + index;
+            
+            //skip rows that are not on the board
+            if (y < 0 || y >= getRows())
+                continue;
+            
+            //line the shape up with the board, the columns west of the board are dropped
+            final long mask = (west >= 0) ? shape.getMask(index) << west : shape.getMask(index) >>> -west;
+            
+            if ((this.rows[index(y)] & mask) != 0)
+                return true;
+        }
+        
+        //no blocks exist here, return false
+        return false;
+    }
+    
+    /**
+     * Is there room for a shape?
+     * @param shape The layout of the blocks
+     * @param col The column of the piece location
+     * @param row The row of the piece location
+     * @return true if every block is within the columns and above the bottom and no block is in the way, false otherwise
+     */
+    public boolean hasRoom(final Shape shape, final int col, final int row)
+    {
+        return Piece.hasBounds(shape, col, row, getCols(), getRows()) && !hasBlock(shape, col, row);
+    }
+    
+    /**
+     * Find the first kick that makes room for a rotated shape.<br>
+     * Kicks up are only tried while the piece can still fall, a piece that has landed can't climb by rotating
+     * @param kicks The kicks of the rotation
+     * @param from The layout of the blocks before the rotation
+     * @param to The layout of the blocks after the rotation
+     * @param col The column of the piece location
+     * @param row The row of the piece location
+     * @param lifts The number of times a kick already moved the piece up, no kick up is tried once it reaches Kicks.MAX_LIFTS
+     * @return The index of the first kick with room, Kicks.NONE if the piece can't rotate
+     */
+    public int getKick(final Kicks kicks, final Shape from, final Shape to, final int col, final int row, final int lifts)
+    {
+        //can the piece still be moved up, only if it has lifts left and can still move down
+        final boolean lift = (lifts < Kicks.MAX_LIFTS && hasRoom(from, col, row + 1));
+        
+        for (int index = 0; index < kicks.getSize(); index++)
+        {
+            if (kicks.getRow(index) < 0 && !lift)
+                continue;
+            
+            if (hasRoom(to, col + kicks.getCol(index), row + kicks.getRow(index)))
+                return index;
+        }
+        
+        return Kicks.NONE;
+    }
+    
+    /**
+     * Get the occupied cells of a row
+     * @param row Row
+     * @return The bit mask of the row
+     */
+    public long getRow(final int row)
+    {
+        return this.rows[index(row)];
+    }
+    
+    /**
+     * Get the challenge blocks of a row
+     * @param row Row
+     * @return The bit mask of the challenge blocks in the row
+     */
+    public long getChallenge(final int row)
+    {
+        return this.challenge[index(row)];
+    }
+    
+    /**
+     * Get the regular blocks of a row
+     * @param row Row
+     * @return The bit mask of the blocks in the row that are not challenge or cleared blocks
+     */
+    public long getRegular(final int row)
+    {
+        return this.rows[index(row)] & ~(this.challenge[index(row)] | this.cleared[index(row)]);
+    }
+    
+    /**
+     * Is every column of the row filled?
+     * @param row Row
+     * @return true if the row is complete, false otherwise
+     */
+    public boolean isComplete(final int row)
+    {
+        return (this.rows[index(row)] == getFull());
+    }
+    
+    /**
+     * Count the completed rows
+     * @return The number of rows where every column is filled
+     */
+    public int getCompletedCount()
+    {
+        int count = 0;
+        
+        for (int row = 0; row < getRows(); row++)
+        {
+            if (isComplete(row))
+                count++;
+        }
+        
+        return count;
+    }
+    
+    /**
+     * Remove the completed rows and drop the remaining blocks.<br>
+     * This follows the same rules as the board, the regular blocks of a row fall as
+     * long as the row below is completely empty and challenge blocks never move
+     * @return The number of rows removed
+     */
+    public int clearCompleted()
+    {
+        //the number of rows removed
+        int count = 0;
+        
+        //did any blocks move
+        boolean moved = false;
+        
+        //the lowest row of the empty rows directly below the current row
+        int empty = NO_ROW;
+        
+        //start at the bottom and move north
+        for (int row = getRows() - 1; row >= 0; row--)
+        {
+            //remove the completed row
+            if (isComplete(row))
+            {
+                this.rows[index(row)] = 0;
+                this.challenge[index(row)] = 0;
+                this.cleared[index(row)] = 0;
+                count++;
+            }
+            
+            //the regular blocks in this row
+            final long blocks = getRegular(row);
+            
+            //move the regular blocks down if there is room
+            if (blocks != 0 && empty != NO_ROW)
+            {
+                this.rows[index(empty)] = blocks;
+                this.rows[index(row)] &= ~blocks;
+                
+                //the rows in between are still empty
+                empty--;
+                
+                //flag the change
+                moved = true;
+            }
+            
+            //if this row is now completely empty, blocks above can fall into it
+            if (this.rows[index(row)] == 0)
+            {
+                if (empty == NO_ROW)
+                    empty = row;
+            }
+            else
+            {
+                empty = NO_ROW;
+            }
+        }
+        
+        //the columns need to be measured again
+        if (count > 0 || moved)
+            measure();
+        
+        return count;
+    }
+    
+    /**
+     * Move every row up by 1.<br>
+     * The top row is removed and the bottom row is left empty.
+     * Only the start of the ring moves, and every column that has a block grows by 1
+     */
+    public void shiftUp()
+    {
+        final int top = index(0);
+        final long removed = this.rows[top];
+        
+        //the old top row is now the empty bottom row
+        this.rows[top] = 0;
+        this.challenge[top] = 0;
+        this.cleared[top] = 0;
+        this.base = index(1);
+        
+        for (int col = 0; col < getCols(); col++)
+        {
+            if (((removed >>> col) & 1) != 0)
+            {
+                //the top block was pushed off the board, find the next one below
+                this.counts[col]--;
+                this.heights[col] = measure(col, 0);
+            }
+            else if (this.heights[col] > 0)
+            {
+                this.heights[col]++;
+            }
+        }
+    }
+    
+    /**
+     * Get the index of a row in the masks
+     * @param row Row
+     * @return The index in the masks where the row is kept
+     */
+    private int index(final int row)
+    {
+        final int index = this.base + row;
+        
+        return (index < getRows()) ? index : index - getRows();
+    }
+    
+    /**
+     * Find the height of a column from the highest block at or below a row
+     * @param col Column
+     * @param from The first row checked
+     * @return The distance from the bottom of the board to the highest block found, 0 if there are none
+     */
+    private int measure(final int col, final int from)
+    {
+        for (int row = from; row < getRows(); row++)
+        {
+            if (hasBlock(col, row))
+                return getRows() - row;
+        }
+        
+        return 0;
+    }
+    
+    /**
+     * Calculate the height and number of filled cells of every column
+     */
+    private void measure()
+    {
+        for (int col = 0; col < getCols(); col++)
+        {
+            this.heights[col] = 0;
+            this.counts[col] = 0;
+        }
+        
+        for (int row = getRows() - 1; row >= 0; row--)
+        {
+            for (int col = 0; col < getCols(); col++)
+            {
+                if (hasBlock(col, row))
+                {
+                    this.heights[col] = getRows() - row;
+                    this.counts[col]++;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Is the row empty?<br>
+     * Challenge and cleared blocks are not counted
+     * @param row Row
+     * @return true if there are no regular blocks in the row, false otherwise
+     */
+    public boolean isEmpty(final int row)
+    {
+        return (getRegular(row) == 0);
+    }
+    
+    /**
+     * Count the challenge blocks in a row
+     * @param row Row
+     * @return The number of challenge blocks in the row
+     */
+    public int getChallengeCount(final int row)
+    {
+        return Long.bitCount(this.challenge[index(row)]);
+    }
+    
+    /**
+     * Get the height of a column
+     * @param col Column
+     * @return The distance from the bottom of the board to the highest block in the column
+     */
+    public int getHeight(final int col)
+    {
+        return this.heights[col];
+    }
+    
+    /**
+     * Count the holes in a column.<br>
+     * A hole is an empty space that has a filled block above it
+     * @param col Column
+     * @return The number of empty cells below the highest block in the column
+     */
+    public int getHoles(final int col)
+    {
+        return (this.heights[col] - this.counts[col]);
+    }
+    
+    /**
+     * Calculate the aggregate height
+     * @return The total height of each column
+     */
+    public int getAggregateHeight()
+    {
+        int height = 0;
+        
+        for (int col = 0; col < getCols(); col++)
+        {
+            height += this.heights[col];
+        }
+        
+        return height;
+    }
+    
+    /**
+     * Count the number of holes
+     * @return The total number of empty cells that are below a filled block
+     */
+    public int getHoleCount()
+    {
+        int count = 0;
+        
+        for (int col = 0; col < getCols(); col++)
+        {
+            count += getHoles(col);
+        }
+        
+        return count;
+    }
+    
+    /**
+     * Get the total height difference between each neighboring column
+     * @return The total bumpiness between columns
+     */
+    public int getBumpiness()
+    {
+        int total = 0;
+        
+        for (int col = 0; col < getCols() - 1; col++)
+        {
+            final int difference = this.heights[col] - this.heights[col + 1];
+            
+            total += (difference < 0) ? -difference : difference;
+        }
+        
+        return total;
+    }
+    
+    /**
+     * Find the row where a piece will rest when dropped straight down from the top of a column.<br>
+     * This only needs the height of each column the piece covers and the bottom of the piece in those columns
+     * @param shape The layout of the piece
+     * @param col The column of the piece
+     * @return The row where the piece will rest, NO_ROW if the piece is out of bounds or can't fit below the top
+     */
+    public int getDropRow(final Shape shape, final int col)
+    {
+        //if the piece is not in bounds here, it can't be placed
+        if (col + shape.getMinCol() < 0 || col + shape.getMaxCol() >= getCols())
+            return NO_ROW;
+        
+        int row = getRows();
+        
+        for (int index = 0; index < shape.getWidth(); index++)
+        {
+            //the first empty row above the highest block in the column
+            final int surface = getRows() - getHeight(col + shape.getMinCol() + index) - 1;
+            
+            //the piece stops as soon as any column touches
+            row = Math.min(row, surface - shape.getBottom(index));
+        }
+        
+        //if the piece is located above the top of the board
+        if (row + shape.getMinRow() < 0)
+            return NO_ROW;
+        
+        return row;
+    }
+}
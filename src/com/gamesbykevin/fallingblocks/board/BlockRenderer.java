@@ -0,0 +1,146 @@
+package com.gamesbykevin.fallingblocks.board;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+
+import com.gamesbykevin.fallingblocks.board.piece.Block;
+import com.gamesbykevin.fallingblocks.board.piece.Piece;
+import com.gamesbykevin.fallingblocks.board.piece.Shape;
+
+/**
+ * Draws blocks straight from the image containing every block.<br>
+ * The part of the image for each piece type is set once, and the area of every cell of the board
+ * is worked out once for the block size, so drawing a block only picks 2 existing rectangles.
+ * Every block of a pass comes from the same image, and nothing but a single reused rectangle is changed while drawing
+ * @author GOD
+ */
+public final class BlockRenderer
+{
+    //the image containing every block
+    private Bitmap atlas;
+    
+    //the part of the image for each piece type, by type ordinal
+    private final Rect[] sources;
+    
+    //the area of each cell of the board, by row and column, the top left cell is at 0,0
+    private final Rect[][] cells;
+    
+    //the size of a single block on the board
+    private final int dimension;
+    
+    //reused for blocks that are not on a cell of the board
+    private final Rect destination = new Rect();
+    
+    /**
+     * Create a new renderer
+     * @param cols The number of columns on the board
+     * @param rows The number of rows on the board
+     * @param dimension The size of a single block on the board
+     */
+    public BlockRenderer(final int cols, final int rows, final int dimension)
+    {
+        this.dimension = dimension;
+        this.sources = new Rect[Piece.Type.values().length];
+        this.cells = new Rect[rows][cols];
+        
+        for (int row = 0; row < rows; row++)
+        {
+            for (int col = 0; col < cols; col++)
+            {
+                this.cells[row][col] = new Rect(col * dimension, row * dimension, (col + 1) * dimension, (row + 1) * dimension);
+            }
+        }
+    }
+    
+    /**
+     * Assign the image containing every block
+     * @param atlas The image
+     */
+    public void setAtlas(final Bitmap atlas)
+    {
+        this.atlas = atlas;
+    }
+    
+    /**
+     * Assign the part of the image drawn for a piece type
+     * @param type The type of piece
+     * @param col The column of the block on the image
+     * @param row The row of the block on the image
+     */
+    public void setSource(final Piece.Type type, final int col, final int row)
+    {
+        final int x = col * Block.DIMENSION_ANIMATION;
+        final int y = row * Block.DIMENSION_ANIMATION;
+        
+        this.sources[type.ordinal()] = new Rect(x, y, x + Block.DIMENSION_ANIMATION, y + Block.DIMENSION_ANIMATION);
+    }
+    
+    /**
+     * Draw a block on a cell of the board.<br>
+     * The cells are measured from the top left of the board, translate the canvas to draw the board somewhere else
+     * @param canvas Canvas to write pixel data
+     * @param type The type of piece the block belongs to
+     * @param col Column
+     * @param row Row
+     */
+    public void render(final Canvas canvas, final Piece.Type type, final int col, final int row)
+    {
+        //a block above the board has no cell of its own
+        if (row < 0 || row >= this.cells.length || col < 0 || col >= this.cells[row].length)
+        {
+            render(canvas, type, col * this.dimension, row * this.dimension, this.dimension);
+        }
+        else
+        {
+            canvas.drawBitmap(this.atlas, this.sources[type.ordinal()], this.cells[row][col], null);
+        }
+    }
+    
+    /**
+     * Draw a block anywhere at any size
+     * @param canvas Canvas to write pixel data
+     * @param type The type of piece the block belongs to
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @param dimension The width/height of the block
+     */
+    public void render(final Canvas canvas, final Piece.Type type, final int x, final int y, final int dimension)
+    {
+        this.destination.set(x, y, x + dimension, y + dimension);
+        canvas.drawBitmap(this.atlas, this.sources[type.ordinal()], this.destination, null);
+    }
+    
+    /**
+     * Draw the blocks of a piece on the cells of the board
+     * @param canvas Canvas to write pixel data
+     * @param piece The piece
+     */
+    public void render(final Canvas canvas, final Piece piece)
+    {
+        final Shape shape = piece.getShape();
+        
+        for (int index = 0; index < shape.getSize(); index++)
+        {
+            render(canvas, piece.getBlocks()[index].getType(), piece.getCol() + shape.getCol(index), piece.getRow() + shape.getRow(index));
+        }
+    }
+    
+    /**
+     * Draw the blocks of a piece at any size
+     * @param canvas Canvas to write pixel data
+     * @param piece The piece
+     * @param x The x-coordinate of the piece location
+     * @param y The y-coordinate of the piece location
+     * @param dimension The width/height of a block
+     */
+    public void render(final Canvas canvas, final Piece piece, final int x, final int y, final int dimension)
+    {
+        final Shape shape = piece.getShape();
+        
+        for (int index = 0; index < shape.getSize(); index++)
+        {
+            render(canvas, piece.getBlocks()[index].getType(), x + ((piece.getCol() + shape.getCol(index)) * dimension), y + ((piece.getRow() + shape.getRow(index)) * dimension), dimension);
+        }
+    }
+}
@@ -1,264 +1,146 @@
 package com.gamesbykevin.fallingblocks.board;
 
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 
-import com.gamesbykevin.androidframework.anim.Animation;
 import com.gamesbykevin.androidframework.base.Entity;
 
 import com.gamesbykevin.fallingblocks.board.piece.Block;
 import com.gamesbykevin.fallingblocks.board.piece.Piece;
+import com.gamesbykevin.fallingblocks.engine.Field;
 
 /**
- * The board
+ * The board on the screen.<br>
+ * The blocks and the rules that change them are in the field, this positions and draws them
  * @author GOD
  */
 public final class Board extends Entity implements IBoard
 {
-    //the table containing the blocks
-    private Block[][] blocks;
-    
-    /**
-     * The total number of rows on the board
-     */
-    public static final int ROWS = 20;
-    
-    /**
-     * The total number of columns on the board
-     */
-    public static final int COLS = 10;
-    
-    //the default place to start the piece
-    public static final int START_COL = (COLS / 2);
-    public static final int START_ROW = 0;
-    
-    //is there at least 1 line complete
-    private boolean complete = false;
-    
-    //the time the completed line started
-    private long time;
+    //the blocks and rules of the board
+    private final Field field;
     
     /**
      * The amount of time to wait when at least 1 line has been completed
      */
-    public static final long COMPLETED_LINE_DELAY = Animation.NANO_SECONDS_PER_SECOND;
+    public static final long COMPLETED_LINE_DELAY = Field.COMPLETED_LINE_DELAY;
     
     //our paint object
     private Paint paint;
     
-    //is the game over, board filled up
-    private boolean gameover = false;
+    //draws the blocks from the blocks image
+    private final BlockRenderer renderer;
+    
+    //the size of a single block
+    private final int dimension;
+    
+    //the blocks on the board are drawn here, only the rows that changed are drawn again
+    private Bitmap cache;
+    private Canvas cacheCanvas;
     
     /**
-     * Create a new board
+     * Create a new board of the regular size
      * @param dimension The size of a single block to determine the size of the board
      */
     public Board(final int dimension)
     {
-        super();
-        
-        //set default dimensions
-        super.setWidth(dimension * COLS);
-        super.setHeight(dimension * ROWS);
-        
-        //create new board array
-        this.blocks = new Block[ROWS][COLS];
+        this(dimension, Field.DEFAULT_COLS, Field.DEFAULT_ROWS);
     }
     
     /**
-     * Reset the board.<br>
+     * Create a new board
+     * @param dimension The size of a single block to determine the size of the board
+     * @param cols The number of columns
+     * @param rows The number of rows
      */
-    public void reset()
+    public Board(final int dimension, final int cols, final int rows)
     {
-        for (int col = 0; col < COLS; col++)
-        {
-            for (int row = 0; row < ROWS; row++)
-            {
-                setBlock(col, row, null);
-            }
-        }
+        super();
         
-        //we don't have any completed lines
-        setComplete(false);
+        //store the block size
+        this.dimension = dimension;
         
-        //the game is not over
-        setGameover(false);
-    }
-    
-    /**
-     * Is the game over?
-     * @return true = yes, false = no
-     */
-    public boolean hasGameover()
-    {
-        return this.gameover;
-    }
-    
-    /**
-     * Assign game over.
-     * @param gameover true = yes, false = no
-     */
-    public void setGameover(final boolean gameover)
-    {
-        this.gameover = gameover;
-    }
-    
-    /**
-     * flag a line completed
-     * @param complete true if there is a completed line, false otherwise
-     */
-    public void setComplete(final boolean complete)
-    {
-        //assign the complete value
-        this.complete = complete;
+        //create the field
+        this.field = new Field(cols, rows);
         
-        //if there is a completed line, store the start time
-        if (hasComplete())
-            this.time = System.nanoTime();
-    }
-    
-    /**
-     * Get the time (nanoseconds)
-     * @return The start time the board was completed
-     */
-    public long getTime()
-    {
-        return this.time;
-    }
-    
-    /**
-     * Do we have at least 1 completed line?
-     * @return true = yes, false = no
-     */
-    public boolean hasComplete()
-    {
-        return this.complete;
+        //create the renderer, the area of each cell is worked out here once
+        this.renderer = new BlockRenderer(getCols(), getRows(), dimension);
+        
+        //set default dimensions
+        super.setWidth(dimension * getCols());
+        super.setHeight(dimension * getRows());
     }
     
     /**
-     * Add the piece to the board temporarily
-     * @param piece The piece we want to add
+     * Get the number of columns
+     * @return The total number of columns on the board
      */
-    public void addTemp(final Piece piece)
+    public int getCols()
     {
-        //check each block in the piece
-        for (Block block : piece.getBlocks())
-        {
-            //adjust the absolute position
-            final int col = (int)(block.getCol() + piece.getCol());
-            final int row = (int)(block.getRow() + piece.getRow());
-            
-            //add it to the board
-            setBlock(col, row, block);
-        }
+        return getField().getCols();
     }
     
     /**
-     * Add the piece to the board
-     * @param piece The piece we want to add
+     * Get the number of rows
+     * @return The total number of rows on the board
      */
-    public void add(final Piece piece)
+    public int getRows()
     {
-        //check each block in the piece
-        for (Block block : piece.getBlocks())
-        {
-            //adjust the absolute position
-            final int col = (int)(block.getCol() + piece.getCol());
-            final int row = (int)(block.getRow() + piece.getRow());
-            
-            //update the position
-            block.setCol(col);
-            block.setRow(row);
-            
-            //add it to the board
-            setBlock(col, row, block);
-        }
+        return getField().getRows();
     }
     
     /**
-     * Remove the piece from the board.<br>
-     * All blocks that belong to the same group are part of the same piece.
-     * @param piece The piece we want to remove.
+     * Get the renderer
+     * @return The object that draws the blocks of this board
      */
-    public void remove(final Piece piece)
+    public BlockRenderer getRenderer()
     {
-        for (int col = 0; col < getBlocks()[0].length; col++)
-        {
-            for (int row = 0; row < getBlocks().length; row++)
-            {
-                //make sure the block exists
-                if (hasBlock(col, row))
-                {
-                    //if the block is part of the piece, remove it
-                    if (getBlock(col, row).hasGroup(piece.getGroup()))
-                        setBlock(col, row, null);
-                }
-            }
-        }
+        return this.renderer;
     }
     
     /**
-     * Does a block already occupy the where the piece is on the board?
-     * @param piece The piece we want to check
-     * @return true if a block already exists where the piece is located, false otherwise
+     * Reset the board.<br>
      */
-    public boolean hasBlock(final Piece piece)
+    public void reset()
     {
-        for (int col = 0; col < getBlocks()[0].length; col++)
-        {
-            for (int row = 0; row < getBlocks().length; row++)
-            {
-                //if a block exists here, and the block is at the same location as the piece
-                if (hasBlock(col, row) && piece.hasBlock(col, row))
-                    return true;
-            }
-        }
-        
-        //no blocks exist here, return false
-        return false;
+        getField().reset();
     }
     
     /**
-     * Does a block already occupy the specified location on the board?
-     * @param col Column
-     * @param row Row
-     * @return true if a block exists at the specified location, otherwise false
+     * Get the field
+     * @return The blocks and rules of the board
      */
-    public boolean hasBlock(final int col, final int row)
+    public Field getField()
     {
-        return (getBlock(col, row) != null);
+        return this.field;
     }
     
     /**
-     * Assign the block at the specified location
-     * @param col Column
-     * @param row Row
-     * @param block The block we want to assign
+     * Is the game over?
+     * @return true = yes, false = no
      */
-    protected void setBlock(final int col, final int row, final Block block)
+    public boolean hasGameover()
     {
-        getBlocks()[row][col] = block;
+        return getField().hasGameover();
     }
     
     /**
-     * Get the block at the specified location
-     * @param col Column
-     * @param row Row
-     * @return The block at the location
+     * Assign game over.
+     * @param gameover true = yes, false = no
      */
-    public Block getBlock(final int col, final int row)
+    public void setGameover(final boolean gameover)
     {
-        return getBlocks()[row][col];
+        getField().setGameover(gameover);
     }
     
     /**
-     * Get the list of blocks that make up the board
-     * @return The list of blocks
+     * Get the occupancy of the board
+     * @return The bit masks of each row
      */
-    public Block[][] getBlocks()
+    public Bitboard getBitboard()
     {
-        return this.blocks;
+        return getField().getBitboard();
     }
     
     /**
@@ -275,42 +157,94 @@ public final class Board extends Entity implements IBoard
             this.paint = null;
         }
         
-        if (this.blocks != null)
+        getRenderer().setAtlas(null);
+        
+        if (this.cache != null)
         {
-            for (int row = 0; row < ROWS; row++)
-            {
-                for (int col = 0; col < COLS; col++)
-                {
-                    if (this.blocks[row][col] != null)
-                    {
-                        this.blocks[row][col].dispose();
-                        this.blocks[row][col] = null;
-                    }
-                }
-            }
-            
-            this.blocks = null;
+            this.cache.recycle();
+            this.cache = null;
         }
+        
+        this.cacheCanvas = null;
     }
     
     /**
-     * Draw the background of the board
-     * @param canvas 
+     * Draw the board and the blocks on it.<br>
+     * The blocks are kept in a cached image and only the rows changed since the last draw are drawn again,
+     * so a frame where no block was placed, cleared or pushed up is a single image
+     * @param canvas Canvas to write pixel data
      */
-    public void renderBackground(final Canvas canvas)
+    @Override
+    public void render(final Canvas canvas)
     {
         //create new paint object if not exists
         if (paint == null)
             paint = new Paint();
         
-        //fill background
-        paint.setStyle(Paint.Style.FILL);
-        paint.setColor(Color.BLACK);
-        canvas.drawRect(getDestination(), paint);
+        //create the cached image the first time, all rows need to be drawn
+        if (cache == null)
+        {
+            cache = Bitmap.createBitmap(getCols() * dimension, getRows() * dimension, Bitmap.Config.ARGB_8888);
+            cacheCanvas = new Canvas(cache);
+            getField().invalidate();
+        }
+        
+        //draw the rows that changed
+        if (getField().isDirty())
+        {
+            renderRows(getField().getDirtyTop(), getField().getDirtyBottom());
+            getField().clean();
+        }
+        
+        //draw the board
+        canvas.drawBitmap(cache, (float)getX(), (float)getY(), null);
         
         //draw border
         paint.setStyle(Paint.Style.STROKE);
         paint.setColor(Color.WHITE);
-        canvas.drawRect(getDestination(), paint);    
+        canvas.drawRect(getDestination(), paint);
+    }
+    
+    /**
+     * Draw rows of blocks to the cached image
+     * @param top The highest row to draw
+     * @param bottom The lowest row to draw
+     */
+    private void renderRows(final int top, final int bottom)
+    {
+        //clear the background of the rows
+        paint.setStyle(Paint.Style.FILL);
+        paint.setColor(Color.BLACK);
+        cacheCanvas.drawRect(0, top * dimension, getCols() * dimension, (bottom + 1) * dimension, paint);
+        
+        for (int row = top; row <= bottom; row++)
+        {
+            for (int col = 0; col < getCols(); col++)
+            {
+                //get the current block
+                final Block block = getField().getBlock(col, row);
+                
+                //if there is no block, there is nothing to render
+                if (block == null)
+                    continue;
+                
+                //render block
+                getRenderer().render(cacheCanvas, block.getType(), col, row);
+            }
+        }
+    }
+    
+    /**
+     * Draw a piece on the board
+     * @param canvas Canvas to write pixel data
+     * @param piece The piece, its location is on the board
+     */
+    public void renderPiece(final Canvas canvas, final Piece piece)
+    {
+        //the cells are measured from the top left of the board
+        canvas.save();
+        canvas.translate((float)getX(), (float)getY());
+        getRenderer().render(canvas, piece);
+        canvas.restore();
     }
 }
\ No newline at end of file
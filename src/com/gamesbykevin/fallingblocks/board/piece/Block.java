@@ -1,20 +1,19 @@
 package com.gamesbykevin.fallingblocks.board.piece;
 
-import android.graphics.Bitmap;
-import android.graphics.Canvas;
-import java.util.UUID;
-
-import com.gamesbykevin.androidframework.base.Entity;
-import com.gamesbykevin.androidframework.resources.Disposable;
-
 /**
- * A bunch of blocks create a piece
+ * A bunch of blocks create a piece.<br>
+ * A block doesn't know where it is, in a piece the shape has its location and on the board it is where the board keeps it
  * @author GOD
  */
-public final class Block extends Entity implements Disposable
+public final class Block
 {
     //all blocks that create a piece are part of the same group
-    private final UUID group;
+    private int group;
+    
+    /**
+     * The group of blocks that are not part of a piece, such as challenge and penalty blocks
+     */
+    public static final int NO_GROUP = 0;
     
     /**
      * The pixel width/height of 1 block animation
@@ -40,18 +39,22 @@ public final class Block extends Entity implements Disposable
     private Piece.Type type;
     
     /**
-     * Create a block at the specified location, color, and group
-     * @param col Column
-     * @param row Row
-     * @param group Group this block belongs to
+     * Create a block with the specified color and group
+     * @param group Group this block belongs to, NO_GROUP if not part of a piece
      * @param type The type of piece this block belongs to
      */
-    public Block(final int col, final int row, final UUID group, final Piece.Type type)
+    public Block(final int group, final Piece.Type type)
+    {
+        set(group, type);
+    }
+    
+    /**
+     * Assign the group and type so the block can be used again
+     * @param group Group this block belongs to, NO_GROUP if not part of a piece
+     * @param type The type of piece this block belongs to
+     */
+    final void set(final int group, final Piece.Type type)
     {
-        //save the location
-        super.setCol(col);
-        super.setRow(row);
-        
         //assign the group
         this.group = group;
         
@@ -82,7 +85,7 @@ public final class Block extends Entity implements Disposable
      * Get the group id
      * @return The id where all blocks with the same group create a piece
      */
-    public UUID getGroup()
+    public int getGroup()
     {
         return this.group;
     }
@@ -92,51 +95,8 @@ public final class Block extends Entity implements Disposable
      * @param group The group to check for match
      * @return true = yes, false = no
      */
-    public boolean hasGroup(final UUID group)
+    public boolean hasGroup(final int group)
     {
-        return getGroup().equals(group);
-    }
-    
-    /**
-     * Assign the column
-     * @param col Column
-     */
-    public void setCol(final int col)
-    {
-        super.setCol(col);
-    }
-    
-    /**
-     * Assign the row
-     * @param row Row
-     */
-    public void setRow(final int row)
-    {
-        super.setRow(row);
-    }
-    
-    @Override
-    public void dispose()
-    {
-        //recycle objects here
-        super.dispose();
-    }
-    
-    /**
-     * Render the block
-     * @param canvas Canvas to write pixel data
-     * @param image The image of the block
-     * @param x x-coordinate
-     * @param y y-coordinate
-     * @throws Exception 
-     */
-    public void render(final Canvas canvas, final Bitmap image, final int x, final int y) throws Exception
-    {
-        //update coordinates
-        super.setX(x);
-        super.setY(y);
-        
-        //render the specified image
-        super.render(canvas, image);
+        return (getGroup() == group);
     }
 }
\ No newline at end of file
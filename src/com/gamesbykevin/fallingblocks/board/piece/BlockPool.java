@@ -0,0 +1,138 @@
+package com.gamesbykevin.fallingblocks.board.piece;
+
+/**
+ * Keeps blocks that are no longer on the board so they can be used again.<br>
+ * Each board has its own pool, blocks are released when rows are cleared, the board is reset or a piece is disposed
+ * and obtained for new pieces, challenge blocks and penalty rows.<br>
+ * The pool is not thread safe, it belongs to the thread updating the board
+ * @author GOD
+ */
+public final class BlockPool
+{
+    //the blocks ready to be used again
+    private final Block[] blocks;
+    
+    //the number of blocks ready to be used again
+    private int available = 0;
+    
+    //the number of blocks created because the pool was empty
+    private int created = 0;
+    
+    //the number of blocks obtained from the pool
+    private int reused = 0;
+    
+    //the number of blocks released to the pool
+    private int released = 0;
+    
+    //the number of blocks released when the pool was full
+    private int discarded = 0;
+    
+    /**
+     * Create a new pool
+     * @param capacity The most blocks the pool will keep
+     */
+    public BlockPool(final int capacity)
+    {
+        this.blocks = new Block[capacity];
+    }
+    
+    /**
+     * Get a block, used again if possible
+     * @param group Group this block belongs to, Block.NO_GROUP if not part of a piece
+     * @param type The type of piece this block belongs to
+     * @return A block with the specified group and type
+     */
+    public Block obtain(final int group, final Piece.Type type)
+    {
+        //there is nothing to use again, create a block
+        if (this.available == 0)
+        {
+            this.created++;
+            return new Block(group, type);
+        }
+        
+        //take the last block released
+        this.available--;
+        final Block block = this.blocks[this.available];
+        this.blocks[this.available] = null;
+        
+        block.set(group, type);
+        this.reused++;
+        
+        return block;
+    }
+    
+    /**
+     * Return a block to the pool.<br>
+     * The block can't be used by the caller anymore
+     * @param block The block no longer needed, null is ignored
+     */
+    public void release(final Block block)
+    {
+        if (block == null)
+            return;
+        
+        this.released++;
+        
+        //if the pool is full let the block go
+        if (this.available == this.blocks.length)
+        {
+            this.discarded++;
+            return;
+        }
+        
+        this.blocks[this.available] = block;
+        this.available++;
+    }
+    
+    /**
+     * Get the number of blocks ready to be used again
+     * @return The number of blocks in the pool
+     */
+    public int getAvailable()
+    {
+        return this.available;
+    }
+    
+    /**
+     * Get the number of blocks created
+     * @return The number of blocks created because the pool was empty
+     */
+    public int getCreated()
+    {
+        return this.created;
+    }
+    
+    /**
+     * Get the number of blocks reused
+     * @return The number of blocks obtained from the pool instead of created
+     */
+    public int getReused()
+    {
+        return this.reused;
+    }
+    
+    /**
+     * Get the number of blocks released
+     * @return The number of blocks returned to the pool
+     */
+    public int getReleased()
+    {
+        return this.released;
+    }
+    
+    /**
+     * Get the number of blocks discarded
+     * @return The number of blocks released when the pool was full
+     */
+    public int getDiscarded()
+    {
+        return this.discarded;
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "available=" + getAvailable() + ", created=" + getCreated() + ", reused=" + getReused() + ", released=" + getReleased() + ", discarded=" + getDiscarded();
+    }
+}
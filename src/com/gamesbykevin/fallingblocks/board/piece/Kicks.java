@@ -0,0 +1,123 @@
+package com.gamesbykevin.fallingblocks.board.piece;
+
+/**
+ * The offsets tried when a piece rotates clockwise into a wall or another block.<br>
+ * Each piece type has its own list for each rotation, worked out once from the shape before and after the rotation.
+ * The rotation in place is tried first, then the piece is pushed back over the columns the new shape sticks out,
+ * the side it sticks out the most first, and then up over the rows it sticks out below.
+ * The kicks up are only for a piece that can still fall, and only MAX_LIFTS times for each piece,
+ * so a piece can't climb or stay in play by rotating (see Bitboard.getKick).<br>
+ * The lists are shared and never change, trying them creates nothing
+ * @author GOD
+ */
+public final class Kicks
+{
+    /**
+     * No kick lets the piece rotate
+     */
+    public static final int NONE = -1;
+    
+    /**
+     * The number of times a kick can move a piece up
+     */
+    public static final int MAX_LIFTS = 1;
+    
+    //the kicks of each piece type for each rotation
+    private static final Kicks[][] KICKS = new Kicks[Piece.Type.values().length][Piece.TOTAL_ROTATIONS];
+    
+    //the column/row offset of each kick, in the order they are tried
+    private final int[] cols, rows;
+    
+    static
+    {
+        for (Piece.Type type : Piece.Type.values())
+        {
+            //these types are never a piece
+            if (Piece.ignoreType(type))
+                continue;
+            
+            for (int rotation = 0; rotation < Piece.TOTAL_ROTATIONS; rotation++)
+            {
+                KICKS[type.ordinal()][rotation] = new Kicks(Shape.get(type, rotation), Shape.get(type, Piece.getRotation(rotation + 1)));
+            }
+        }
+    }
+    
+    /**
+     * Create the kicks of a single rotation
+     * @param from The shape before the rotation
+     * @param to The shape after the rotation
+     */
+    private Kicks(final Shape from, final Shape to)
+    {
+        //how far the new shape sticks out past the old shape on each side, at least 1 column
+        final int west = from.getMinCol() - to.getMinCol();
+        final int east = to.getMaxCol() - from.getMaxCol();
+        final int reach = Math.max(1, Math.max(west, east));
+        
+        //how far the new shape sticks out below the old shape
+        final int down = Math.max(0, to.getMaxRow() - from.getMaxRow());
+        
+        //push the piece away from the side it sticks out the most first
+        final int first = (west >= east) ? 1 : -1;
+        
+        final int size = 1 + (reach * 2) + down;
+        
+        this.cols = new int[size];
+        this.rows = new int[size];
+        
+        //the rotation in place is always first
+        int index = 1;
+        
+        for (int distance = 1; distance <= reach; distance++)
+        {
+            this.cols[index++] = distance * first;
+            this.cols[index++] = -distance * first;
+        }
+        
+        for (int distance = 1; distance <= down; distance++)
+        {
+            this.rows[index++] = -distance;
+        }
+    }
+    
+    /**
+     * Get the kicks
+     * @param type The type of piece
+     * @param rotation The rotation before rotating clockwise, ranging from 0 - 3
+     * @return The kicks tried when the piece type rotates clockwise from the rotation
+     */
+    public static Kicks get(final Piece.Type type, final int rotation)
+    {
+        return KICKS[type.ordinal()][rotation];
+    }
+    
+    /**
+     * Get the number of kicks
+     * @return The total number of offsets tried, including the rotation in place
+     */
+    public int getSize()
+    {
+        return this.cols.length;
+    }
+    
+    /**
+     * Get the column offset of a kick
+     * @param index The index of the kick
+     * @return The columns the piece is moved, negative is west
+     */
+    public int getCol(final int index)
+    {
+        return this.cols[index];
+    }
+    
+    /**
+     * Get the row offset of a kick
+     * @param index The index of the kick
+     * @return The rows the piece is moved, negative is north
+     */
+    public int getRow(final int index)
+    {
+        return this.rows[index];
+    }
+}
@@ -1,35 +1,47 @@
 package com.gamesbykevin.fallingblocks.board.piece;
 
-import android.graphics.Canvas;
-import com.gamesbykevin.androidframework.base.Cell;
-import com.gamesbykevin.androidframework.resources.Disposable;
-
-import com.gamesbykevin.fallingblocks.board.Board;
-import com.gamesbykevin.fallingblocks.panel.GamePanel;
-
-import java.util.ArrayList;
-import java.util.List;
-import java.util.UUID;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * A piece contains a list of blocks
+ * A piece contains a list of blocks.<br>
+ * The layout of the blocks comes from the shape of the current rotation, rotating only changes the index of the shape.
+ * Block number i of the piece is at offset i of the shape
  * @author GOD
  */
-public final class Piece extends Cell implements Disposable
+public final class Piece
 {
     /**
      * The number of different rotations per piece
      */
     public static final int TOTAL_ROTATIONS = 4;
     
+    //the id of the last piece created, headless games create pieces on many threads
+    private static final AtomicInteger IDS = new AtomicInteger(Block.NO_GROUP);
+    
+    //the location of the piece
+    private int col, row;
+    
     //the number of rotations
     private int rotations = 0;
     
-    //list of blocks that create piece
-    private List<Block> blocks;
+    //the number of times a kick moved the piece up
+    private int lifts = 0;
+    
+    //the types a new piece can be
+    private static final Type[] TYPES = createTypes();
+    
+    //the blocks that create piece
+    private final Block[] blocks;
+    
+    //where the blocks come from and go back to
+    private final BlockPool pool;
     
     //all blocks will belong to this group
-    private UUID group;
+    private final int group;
+    
+    //the type of piece
+    private final Type type;
     
     /**
      * The different types of pieces
@@ -75,119 +87,55 @@ public final class Piece extends Cell implements Disposable
      * Create a random piece
      * @param col Column
      * @param row Row
-     * @param dimension (width/height) of 1 single block
+     * @param random Object used to pick the type
+     * @param pool Where the blocks of the piece come from
      * @throws Exception 
      */
-    public Piece(final int col, final int row, final int dimension) throws Exception
+    public Piece(final int col, final int row, final Random random, final BlockPool pool) throws Exception
     {
-        //call parent constructor
-        super(col, row);
+        //store the location
+        setCol(col);
+        setRow(row);
         
-        //create unique id
-        this.group = UUID.randomUUID();
+        //the next id, it only has to be unique among the pieces on a board
+        this.group = IDS.incrementAndGet();
         
-        //create new list of blocks
-        this.blocks = new ArrayList<Block>();
+        //pick a random type
+        this.type = getRandomType(random);
         
-        final Type type = getRandomType();
+        //a piece can't be created of these types
+        if (ignoreType(getType()))
+            throw new Exception("A new piece can't be created of this type.");
         
-        //create the piece of random type
-        switch (type)
-        {
-            /**
-             * Straight line
-             */
-            case PieceOne:
-                add(0, 0, type);
-                add(1, 0, type);
-                add(2, 0, type);
-                add(3, 0, type);
-                break;
-                
-            /**
-             * L
-             */
-            case PieceTwo:
-                add(0, 0, type);
-                add(1, 0, type);
-                add(0, 1, type);
-                add(0, 2, type);
-                break;
-            
-            /**
-             * J
-             */
-            case PieceThree:
-                add(0,  0, type);
-                add(1,  0, type);
-                add(1,  1, type);
-                add(1, 2, type);
-                break;
-                
-            /**
-             * Square
-             */
-            case PieceFour:
-                add(0,  0, type);
-                add(1,  0, type);
-                add(1,  1, type);
-                add(0,  1, type);
-                break;
-                
-            /**
-             * S
-             */
-            case PieceFive:
-                add(0,  0, type);
-                add(1,  0, type);
-                add(0,  1, type);
-                add(-1,  1, type);
-                break;
-            
-            /**
-             * half-plus
-             */
-            case PieceSix:
-                add(0,  0, type);
-                add(0,  1, type);
-                add(1,  1, type);
-                add(-1, 1, type);
-                break;
-                
-            /**
-             * Z
-             */
-            case PieceSeven:
-                add(0,  0, type);
-                add(-1, 0, type);
-                add(0,  1, type);
-                add(1,  1, type);
-                break;
-                
-            case Cleared:
-            case Challenge:
-                throw new Exception("A new piece can't be created of this type.");
-                
-            default:
-                throw new Exception("Piece type not setup here " + type.toString());
-        }
+        //create a block for each cell of the shape, the shape has their locations
+        final Shape shape = Shape.get(getType(), 0);
         
-        //assign the dimensions
-        for (Block block : getBlocks())
+        this.pool = pool;
+        this.blocks = new Block[shape.getSize()];
+        
+        for (int index = 0; index < shape.getSize(); index++)
         {
-            block.setWidth(dimension);
-            block.setHeight(dimension);
+            this.blocks[index] = pool.obtain(getGroup(), getType());
         }
     }
     
     /**
-     * Get random piece type appropriate for a new piece
-     * @return Random piece type
+     * Get the types appropriate for a new piece
+     * @return The standard piece types, in order
      */
-    private static Type getRandomType()
+    private static Type[] createTypes()
     {
-        //create our list
-        List<Type> types = new ArrayList<Type>();
+        int count = 0;
+        
+        for (Type type : Type.values())
+        {
+            if (!ignoreType(type))
+                count++;
+        }
+        
+        final Type[] types = new Type[count];
+        
+        count = 0;
         
         //check each type
         for (Type type : Type.values())
@@ -197,25 +145,49 @@ public final class Piece extends Cell implements Disposable
                 continue;
             
             //add to list
-            types.add(type);
+            types[count++] = type;
         }
         
+        return types;
+    }
+    
+    /**
+     * Get random piece type appropriate for a new piece
+     * @param random Object used to make the random decision
+     * @return Random piece type
+     */
+    private static Type getRandomType(final Random random)
+    {
         //return random result
-        return types.get(GamePanel.RANDOM.nextInt(types.size()));
+        return TYPES[random.nextInt(TYPES.length)];
     }
     
     /**
      * Set the rotation
-     * @param rotations The number rotation we are on will range from 0 - 3
+     * @param rotations The number rotation we are on will range from 0 - 3, out of range wraps around
      */
     public void setRotations(final int rotations)
     {
-        //assign number
-        this.rotations = rotations;
-        
-        //if out of range reset to 0
-        if (rotations < 0 || rotations >= TOTAL_ROTATIONS)
-            this.rotations = 0;
+        this.rotations = getRotation(rotations);
+    }
+    
+    /**
+     * Wrap a rotation
+     * @param rotations Any number of rotations, negative is counter clockwise
+     * @return The same rotation ranging from 0 - 3
+     */
+    public static int getRotation(final int rotations)
+    {
+        return ((rotations % TOTAL_ROTATIONS) + TOTAL_ROTATIONS) % TOTAL_ROTATIONS;
+    }
+    
+    /**
+     * Get the type
+     * @return The type of piece
+     */
+    public Type getType()
+    {
+        return this.type;
     }
     
     /**
@@ -227,23 +199,30 @@ public final class Piece extends Cell implements Disposable
         return this.rotations;
     }
     
+    /**
+     * Get the shape of the current rotation
+     * @return The layout of the blocks
+     */
+    public Shape getShape()
+    {
+        return Shape.get(getType(), getRotation());
+    }
+    
+    /**
+     * Get the shape of another rotation
+     * @param rotations The rotation, out of range wraps around
+     * @return The layout of the blocks if the piece had that rotation
+     */
+    public Shape getShape(final int rotations)
+    {
+        return Shape.get(getType(), getRotation(rotations));
+    }
+    
     /**
      * Rotate the piece clockwise
      */
     public void rotateClockwise()
     {
-        for (Block block : getBlocks())
-        {
-            //get the current location
-            final int col = (int)block.getCol();
-            final int row = (int)block.getRow();
-            
-            //rotate
-            block.setCol(row);
-            block.setRow(-col);
-        }
-        
-        //keep track of rotation
         setRotations(getRotation() + 1);
     }
     
@@ -252,27 +231,68 @@ public final class Piece extends Cell implements Disposable
      */
     public void rotateCounterClockwise()
     {
-        for (Block block : getBlocks())
-        {
-            //get the current location
-            final int col = (int)block.getCol();
-            final int row = (int)block.getRow();
-            
-            //rotate
-            block.setCol(-row);
-            block.setRow(col);
-        }
-        
-        //keep track of rotation
         setRotations(getRotation() - 1);
     }
     
+    /**
+     * Get the number of lifts
+     * @return The number of times a kick moved the piece up
+     */
+    public int getLifts()
+    {
+        return this.lifts;
+    }
+    
+    /**
+     * Count a kick that moved the piece up
+     */
+    public void increaseLifts()
+    {
+        this.lifts++;
+    }
+    
+    /**
+     * Assign the column
+     * @param col Column
+     */
+    public void setCol(final int col)
+    {
+        this.col = col;
+    }
+    
+    /**
+     * Assign the row
+     * @param row Row
+     */
+    public void setRow(final int row)
+    {
+        this.row = row;
+    }
+    
+    /**
+     * Get the column
+     * @return Column
+     */
+    public int getCol()
+    {
+        return this.col;
+    }
+    
+    /**
+     * Get the row
+     * @return Row
+     */
+    public int getRow()
+    {
+        return this.row;
+    }
+    
     /**
      * Increase the current column
      */
     public void increaseCol()
     {
-        super.setCol(getCol() + 1);
+        setCol(getCol() + 1);
     }
     
     /**
@@ -280,7 +300,7 @@ public final class Piece extends Cell implements Disposable
      */
     public void decreaseCol()
     {
-        super.setCol(getCol() - 1);
+        setCol(getCol() - 1);
     }
     
     /**
@@ -288,7 +308,7 @@ public final class Piece extends Cell implements Disposable
      */
     public void increaseRow()
     {
-        super.setRow(getRow() + 1);
+        setRow(getRow() + 1);
     }
     
     /**
@@ -296,7 +316,7 @@ public final class Piece extends Cell implements Disposable
      */
     public void decreaseRow()
     {
-        super.setRow(getRow() - 1);
+        setRow(getRow() - 1);
     }
     
     /**
@@ -304,7 +324,7 @@ public final class Piece extends Cell implements Disposable
      * All blocks that make this piece are part of the same group
      * @return The assigned group
      */
-    public UUID getGroup()
+    public int getGroup()
     {
         return this.group;
     }
@@ -316,22 +336,17 @@ public final class Piece extends Cell implements Disposable
      */
     public boolean hasRow(final int row)
     {
-        for (Block block : getBlocks())
-        {
-            //if the row matches, return true
-            if (getRow() + block.getRow() == row)
-                return true;
-        }
+        final Shape shape = getShape();
         
-        //none of the blocks were on the specified row
-        return false;
+        return (row >= getRow() + shape.getMinRow() && row <= getRow() + shape.getMaxRow());
     }
     
     /**
-     * Get the blocks.
-     * @return The list of blocks that make up this piece
+     * Get the blocks.<br>
+     * The location of each block is in the shape, see getShape()
+     * @return The blocks that make up this piece
      */
-    public List<Block> getBlocks()
+    public Block[] getBlocks()
     {
         return this.blocks;
     }
@@ -344,130 +359,52 @@ public final class Piece extends Cell implements Disposable
      */
     public boolean hasBlock(final int col, final int row)
     {
-        //check each block
-        for (Block block : getBlocks())
-        {
-            //adjust location to check for collision
-            if (col == getCol() + block.getCol() && row == getRow() + block.getRow())
-                return true;
-        }
-        
-        //return false
-        return false;
+        return getShape().hasBlock(col - getCol(), row - getRow());
     }
     
     /**
      * Is this piece in bounds of the game board?
+     * @param cols The number of columns on the board
+     * @param rows The number of rows on the board
      * @return true if in bounds of the game board, false otherwise
      */
-    public boolean hasBounds()
+    public boolean hasBounds(final int cols, final int rows)
     {
-        for (Block block : getBlocks())
-        {
-            final int col = (int)(getCol() + block.getCol());
-            final int row = (int)(getRow() + block.getRow());
-            
-            //if the column is out of bounds
-            if (col < 0 || col >= Board.COLS)
-                return false;
-            
-            //if the row is out of bounds
-            if (row >= Board.ROWS)
-                return false;
-        }
-        
-        //piece is within board boundary, return true
-        return true;
+        return hasBounds(getShape(), getCol(), getRow(), cols, rows);
     }
     
     /**
-     * Add block to the list
-     * @param col Column
-     * @param row Row
-     * @param type The type of piece the blocks are
+     * Is a shape in bounds of the game board?
+     * @param shape The layout of the blocks
+     * @param col The column of the piece location
+     * @param row The row of the piece location
+     * @param cols The number of columns on the board
+     * @param rows The number of rows on the board
+     * @return true if every block is within the columns and above the bottom, false otherwise
      */
-    private void add(final int col, final int row, final Type type)
+    public static boolean hasBounds(final Shape shape, final int col, final int row, final int cols, final int rows)
     {
-        this.blocks.add(new Block(col, row, getGroup(), type));
-    }
-    
-    @Override
-    public void dispose()
-    {
-        if (blocks != null)
-        {
-            for (Block block : blocks)
-            {
-                if (block != null)
-                {
-                    block.dispose();
-                    block = null;
-                }
-            }
-            
-            blocks.clear();
-            blocks = null;
-        }
-    }
-    
-    /**
-     * Render the block on the board
-     * @param canvas Canvas to write pixel data
-     * @param board The board we are rendering on
-     * @throws Exception
-     */
-    public void render(final Canvas canvas, final Board board) throws Exception
-    {
-        render(canvas, board, 1f);
-    }
-    
-    /**
-     * Render the block on the board
-     * @param canvas Canvas to write pixel data
-     * @param board The board we are rendering on
-     * @param scale The ratio to resize the piece
-     * @throws Exception
-     */
-    public void render(final Canvas canvas, final Board board, final float scale) throws Exception
-    {
-        render(canvas, board, scale, (int)board.getX(), (int)board.getY());
+        //if a column is out of bounds
+        if (col + shape.getMinCol() < 0 || col + shape.getMaxCol() >= cols)
+            return false;
+        
+        //if a row is out of bounds
+        if (row + shape.getMaxRow() >= rows)
+            return false;
+        
+        //shape is within board boundary, return true
+        return true;
     }
     
     /**
-     * Render the block on the board at the specified starting location
-     * @param canvas Canvas to write pixel data
-     * @param board The board we are rendering on
-     * @param scale The ratio to resize the piece
-     * @param startX The desired starting x-coordinate of the piece
-     * @param startY The desired starting y-coordinate of the piece
-     * @throws Exception
+     * Return the blocks to the pool.<br>
+     * Only dispose a piece that was never added to the board, once added the blocks belong to the board
      */
-    public void render(final Canvas canvas, final Board board, final float scale, final int startX, final int startY) throws Exception
+    public void dispose()
     {
         for (Block block : getBlocks())
         {
-            //store the dimensions
-            final double w = block.getWidth();
-            final double h = block.getHeight();
-            
-            //adjust dimensions
-            block.setWidth(w * scale);
-            block.setHeight(h * scale);
-            
-            //calculate starting coordinate of the piece
-            final int x = (int)(startX + (getCol() * block.getWidth()));
-            final int y = (int)(startY + (getRow() * block.getHeight()));
-            
-            //adjust location for the current block
-            final int blockX = x + (int)(block.getCol() * block.getWidth());
-            final int blockY = y + (int)(block.getRow() * block.getHeight());
-            
-            //render the block
-            block.render(canvas, board.getSpritesheet().get(block.getType()).getImage(), blockX, blockY);
-            
-            //restore dimensions
-            block.setWidth(w);
-            block.setHeight(h);
+            this.pool.release(block);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,292 @@
+package com.gamesbykevin.fallingblocks.board.piece;
+
+/**
+ * The block layout of a piece type in a single rotation.<br>
+ * Every rotation of every piece type is calculated once and shared, a piece only keeps the index of its rotation
+ * and the cpu search, the player moves and the collision checks all read the same shapes
+ * @author GOD
+ */
+public final class Shape
+{
+    //the shapes of each piece type for each rotation
+    private static final Shape[][] SHAPES = new Shape[Piece.Type.values().length][Piece.TOTAL_ROTATIONS];
+    
+    //the offset of each block from the piece location
+    private final int[] cols, rows;
+    
+    //the range of the offsets
+    private final int minCol, maxCol, minRow, maxRow;
+    
+    //the lowest row offset in each column of the shape
+    private final int[] bottoms;
+    
+    //the blocks of each row of the shape as a bit mask, bit 0 is the west most column
+    private final long[] masks;
+    
+    static
+    {
+        for (Piece.Type type : Piece.Type.values())
+        {
+            //these types are never a piece
+            if (Piece.ignoreType(type))
+                continue;
+            
+            //get the starting layout
+            final int[][] blocks = getBlocks(type);
+            
+            for (int rotation = 0; rotation < Piece.TOTAL_ROTATIONS; rotation++)
+            {
+                SHAPES[type.ordinal()][rotation] = new Shape(blocks);
+                
+                //rotate clockwise for the next rotation, the same way the piece does
+                for (int[] block : blocks)
+                {
+                    final int col = block[0];
+                    final int row = block[1];
+                    
+                    block[0] = row;
+                    block[1] = -col;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Create a shape
+     * @param blocks The column/row offset of each block
+     */
+    private Shape(final int[][] blocks)
+    {
+        this.cols = new int[blocks.length];
+        this.rows = new int[blocks.length];
+        
+        int minCol = blocks[0][0], maxCol = blocks[0][0];
+        int minRow = blocks[0][1], maxRow = blocks[0][1];
+        
+        for (int index = 0; index < blocks.length; index++)
+        {
+            this.cols[index] = blocks[index][0];
+            this.rows[index] = blocks[index][1];
+            
+            minCol = Math.min(minCol, this.cols[index]);
+            maxCol = Math.max(maxCol, this.cols[index]);
+            minRow = Math.min(minRow, this.rows[index]);
+            maxRow = Math.max(maxRow, this.rows[index]);
+        }
+        
+        this.minCol = minCol;
+        this.maxCol = maxCol;
+        this.minRow = minRow;
+        this.maxRow = maxRow;
+        
+        //find the bottom of each column
+        this.bottoms = new int[maxCol - minCol + 1];
+        
+        for (int index = 0; index < this.bottoms.length; index++)
+        {
+            this.bottoms[index] = minRow;
+        }
+        
+        for (int index = 0; index < blocks.length; index++)
+        {
+            final int col = this.cols[index] - minCol;
+            
+            this.bottoms[col] = Math.max(this.bottoms[col], this.rows[index]);
+        }
+        
+        //the mask of each row, the same way the board keeps its rows
+        this.masks = new long[maxRow - minRow + 1];
+        
+        for (int index = 0; index < blocks.length; index++)
+        {
+            this.masks[this.rows[index] - minRow] |= (1L << (this.cols[index] - minCol));
+        }
+    }
+    
+    /**
+     * Get the starting layout of the piece type
+     * @param type The type of piece
+     * @return The column/row offset of each block
+     */
+    private static int[][] getBlocks(final Piece.Type type)
+    {
+        switch (type)
+        {
+            /**
+             * Straight line
+             */
+            case PieceOne:
+                return new int[][] {{0, 0}, {1, 0}, {2, 0}, {3, 0}};
+            
+            /**
+             * L
+             */
+            case PieceTwo:
+                return new int[][] {{0, 0}, {1, 0}, {0, 1}, {0, 2}};
+            
+            /**
+             * J
+             */
+            case PieceThree:
+                return new int[][] {{0, 0}, {1, 0}, {1, 1}, {1, 2}};
+            
+            /**
+             * Square
+             */
+            case PieceFour:
+                return new int[][] {{0, 0}, {1, 0}, {1, 1}, {0, 1}};
+            
+            /**
+             * S
+             */
+            case PieceFive:
+                return new int[][] {{0, 0}, {1, 0}, {0, 1}, {-1, 1}};
+            
+            /**
+             * half-plus
+             */
+            case PieceSix:
+                return new int[][] {{0, 0}, {0, 1}, {1, 1}, {-1, 1}};
+            
+            /**
+             * Z
+             */
+            case PieceSeven:
+                return new int[][] {{0, 0}, {-1, 0}, {0, 1}, {1, 1}};
+            
+            default:
+                throw new RuntimeException("Piece type not setup here " + type.toString());
+        }
+    }
+    
+    /**
+     * Get the shape
+     * @param type The type of piece
+     * @param rotation The rotation ranging from 0 - 3
+     * @return The shape of the piece type in the specified rotation
+     */
+    public static Shape get(final Piece.Type type, final int rotation)
+    {
+        return SHAPES[type.ordinal()][rotation];
+    }
+    
+    /**
+     * Get the number of blocks
+     * @return The total number of blocks in the shape
+     */
+    public int getSize()
+    {
+        return this.cols.length;
+    }
+    
+    /**
+     * Get the column offset of a block
+     * @param index The index of the block
+     * @return The column relative to the piece location
+     */
+    public int getCol(final int index)
+    {
+        return this.cols[index];
+    }
+    
+    /**
+     * Get the row offset of a block
+     * @param index The index of the block
+     * @return The row relative to the piece location
+     */
+    public int getRow(final int index)
+    {
+        return this.rows[index];
+    }
+    
+    /**
+     * Get the lowest column offset
+     * @return The column offset of the west most block
+     */
+    public int getMinCol()
+    {
+        return this.minCol;
+    }
+    
+    /**
+     * Get the highest column offset
+     * @return The column offset of the east most block
+     */
+    public int getMaxCol()
+    {
+        return this.maxCol;
+    }
+    
+    /**
+     * Get the lowest row offset
+     * @return The row offset of the north most block
+     */
+    public int getMinRow()
+    {
+        return this.minRow;
+    }
+    
+    /**
+     * Get the highest row offset
+     * @return The row offset of the south most block
+     */
+    public int getMaxRow()
+    {
+        return this.maxRow;
+    }
+    
+    /**
+     * Get the number of columns the shape covers
+     * @return The distance from the west most block to the east most block
+     */
+    public int getWidth()
+    {
+        return this.bottoms.length;
+    }
+    
+    /**
+     * Get the bottom of a column
+     * @param index The column of the shape, 0 is the west most column
+     * @return The row offset of the lowest block in the column
+     */
+    public int getBottom(final int index)
+    {
+        return this.bottoms[index];
+    }
+    
+    /**
+     * Get the number of rows the shape covers
+     * @return The distance from the north most block to the south most block
+     */
+    public int getHeight()
+    {
+        return this.masks.length;
+    }
+    
+    /**
+     * Get the blocks of a row
+     * @param index The row of the shape, 0 is the north most row
+     * @return The bit mask of the row, bit 0 is the west most column of the shape
+     */
+    public long getMask(final int index)
+    {
+        return this.masks[index];
+    }
+    
+    /**
+     * Is there a block at the offset?
+     * @param col The column relative to the piece location
+     * @param row The row relative to the piece location
+     * @return true if one of the blocks is at the offset, false otherwise
+     */
+    public boolean hasBlock(final int col, final int row)
+    {
+        for (int index = 0; index < getSize(); index++)
+        {
+            if (this.cols[index] == col && this.rows[index] == row)
+                return true;
+        }
+        
+        return false;
+    }
+}
@@ -0,0 +1,10 @@
+package com.gamesbykevin.fallingblocks.engine;
+
+/**
+ * Different action's the player can make
+ * @author GOD
+ */
+public enum Action
+{
+    MOVE_DOWN, MOVE_RIGHT, MOVE_LEFT, MOVE_ROTATE
+}
@@ -0,0 +1,15 @@
+package com.gamesbykevin.fallingblocks.engine;
+
+/**
+ * The source of time for the simulation.<br>
+ * The game loop steps MainThread.CLOCK once a tick, headless games step a StepClock of their own
+ * @author GOD
+ */
+public interface Clock
+{
+    /**
+     * Get the current time
+     * @return The current time (nanoseconds)
+     */
+    public long getTime();
+}
@@ -0,0 +1,18 @@
+package com.gamesbykevin.fallingblocks.engine;
+
+/**
+ * The events that happen during the simulation
+ * @author GOD
+ */
+public enum Event
+{
+    //a piece was placed without completing a line
+    PiecePlace,
+    
+    //a piece was placed and at least 1 line is complete
+    CompletedLine,
+    
+    //the current piece was rotated
+    PieceRotate
+    ;
+}
@@ -0,0 +1,14 @@
+package com.gamesbykevin.fallingblocks.engine;
+
+/**
+ * Receives the events of a simulation, the device uses this to play sound effects
+ * @author GOD
+ */
+public interface EventListener
+{
+    /**
+     * Handle the event
+     * @param event The event that happened
+     */
+    public void onEvent(final Event event);
+}
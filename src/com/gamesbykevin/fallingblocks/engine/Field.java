@@ -0,0 +1,752 @@
+package com.gamesbykevin.fallingblocks.engine;
+
+import com.gamesbykevin.fallingblocks.board.Bitboard;
+import com.gamesbykevin.fallingblocks.board.piece.Block;
+import com.gamesbykevin.fallingblocks.board.piece.BlockPool;
+import com.gamesbykevin.fallingblocks.board.piece.Piece;
+import com.gamesbykevin.fallingblocks.board.piece.Shape;
+
+import java.util.Random;
+
+/**
+ * The blocks on the board and the rules that change them.<br>
+ * This has no device code so it can be run anywhere
+ * @author GOD
+ */
+public final class Field
+{
+    /**
+     * The number of rows on a regular board
+     */
+    public static final int DEFAULT_ROWS = 20;
+    
+    /**
+     * The number of columns on a regular board
+     */
+    public static final int DEFAULT_COLS = 10;
+    
+    /**
+     * The fewest rows a board can have
+     */
+    public static final int MIN_ROWS = 4;
+    
+    /**
+     * The fewest columns a board can have, the widest piece has to fit
+     */
+    public static final int MIN_COLS = 4;
+    
+    /**
+     * The most columns a board can have, each row has to fit in a bit mask
+     */
+    public static final int MAX_COLS = Bitboard.MAX_COLS;
+    
+    /**
+     * The default row to start the piece
+     */
+    public static final int START_ROW = 0;
+    
+    /**
+     * The amount of time to wait when at least 1 line has been completed (nanoseconds)
+     */
+    public static final long COMPLETED_LINE_DELAY = 1000000000L;
+	
+	/**
+	 * The limit of challenge blocks for each row of a regular board, other boards have the same portion
+	 */
+	private static final int CHALLENGE_BLOCKS_PER_ROW = 6;
+	
+	/**
+	 * The row where we start adding challenge blocks on a regular board, other boards have the same portion
+	 */
+	private static final int CHALLENGE_BLOCK_START_ROW = 4;
+    
+    //the dimensions of the board
+    private final int cols, rows;
+    
+    //the limit of challenge blocks for each row, and the row where we start adding them
+    private final int challengePerRow, challengeStartRow;
+    
+    //the table containing the blocks, used as a ring of rows starting at the base
+    private final Block[][] blocks;
+    
+    //the index in the table of the top row
+    private int base = 0;
+    
+    //the occupancy of the blocks as row bit masks
+    private final Bitboard bitboard;
+    
+    //blocks removed from the board are kept here to be used again
+    private final BlockPool pool;
+    
+    //the rows and columns we can still pick from when adding challenge blocks
+    private final int[] rowOptions, colOptions;
+    
+    //the rows changed since the board was last drawn, from the top row to the bottom row
+    private int dirtyTop, dirtyBottom;
+    
+    //is there at least 1 line complete
+    private boolean complete = false;
+    
+    //is the game over, board filled up
+    private boolean gameover = false;
+    
+    /**
+     * Create a new empty field of the regular size
+     */
+    public Field()
+    {
+        this(DEFAULT_COLS, DEFAULT_ROWS);
+    }
+    
+    /**
+     * Create a new empty field.<br>
+     * Everything the board needs is created here, nothing grows while playing
+     * @param cols The number of columns, from MIN_COLS to MAX_COLS
+     * @param rows The number of rows, at least MIN_ROWS
+     * @throws IllegalArgumentException If the size is not supported
+     */
+    public Field(final int cols, final int rows)
+    {
+        if (cols < MIN_COLS || cols > MAX_COLS || rows < MIN_ROWS)
+            throw new IllegalArgumentException("A board can't have " + cols + " columns and " + rows + " rows");
+        
+        this.cols = cols;
+        this.rows = rows;
+        
+        //a row always keeps at least 1 opening
+        this.challengePerRow = Math.max(1, Math.min(cols - 1, (cols * CHALLENGE_BLOCKS_PER_ROW) / DEFAULT_COLS));
+        this.challengeStartRow = (rows * CHALLENGE_BLOCK_START_ROW) / DEFAULT_ROWS;
+        
+        //create new board array
+        this.blocks = new Block[rows][cols];
+        
+        //create the bit masks that mirror the array
+        this.bitboard = new Bitboard(cols, rows);
+        
+        //the pool can hold every cell of the board plus the pieces in play
+        this.pool = new BlockPool((rows + 1) * cols);
+        
+        this.rowOptions = new int[rows];
+        this.colOptions = new int[cols];
+        
+        //a new board has never been drawn
+        invalidate();
+    }
+    
+    /**
+     * Get the number of columns
+     * @return The total number of columns on the board
+     */
+    public int getCols()
+    {
+        return this.cols;
+    }
+    
+    /**
+     * Get the number of rows
+     * @return The total number of rows on the board
+     */
+    public int getRows()
+    {
+        return this.rows;
+    }
+    
+    /**
+     * Get the number of challenge blocks in a row
+     * @return The most challenge blocks a row gets when populating, and the number in each penalty row
+     */
+    public int getChallengePerRow()
+    {
+        return this.challengePerRow;
+    }
+    
+    /**
+     * Get the column where new pieces start
+     * @return The middle column of the board
+     */
+    public int getStartCol()
+    {
+        return (getCols() / 2);
+    }
+    
+    /**
+     * Remove all blocks and flags
+     */
+    public void reset()
+    {
+        for (int col = 0; col < getCols(); col++)
+        {
+            for (int row = 0; row < getRows(); row++)
+            {
+                //the block can be used again
+                getPool().release(getBlock(col, row));
+                
+                setBlock(col, row, null);
+            }
+        }
+        
+        //the top row is first in the table again
+        this.base = 0;
+        
+        //we don't have any completed lines
+        setComplete(false);
+        
+        //the game is not over
+        setGameover(false);
+    }
+    
+    /**
+     * Flag every row changed so the whole board is drawn again
+     */
+    public void invalidate()
+    {
+        setDirty(0, getRows() - 1);
+    }
+    
+    /**
+     * Flag rows changed so they are drawn again
+     * @param top The highest row changed
+     * @param bottom The lowest row changed
+     */
+    private void setDirty(final int top, final int bottom)
+    {
+        if (top < this.dirtyTop)
+            this.dirtyTop = top;
+        if (bottom > this.dirtyBottom)
+            this.dirtyBottom = bottom;
+    }
+    
+    /**
+     * Have any rows changed since the board was last drawn?
+     * @return true if at least 1 row needs to be drawn again, false otherwise
+     */
+    public boolean isDirty()
+    {
+        return (this.dirtyTop <= this.dirtyBottom);
+    }
+    
+    /**
+     * Get the highest row changed
+     * @return The highest row changed since the board was last drawn
+     */
+    public int getDirtyTop()
+    {
+        return this.dirtyTop;
+    }
+    
+    /**
+     * Get the lowest row changed
+     * @return The lowest row changed since the board was last drawn
+     */
+    public int getDirtyBottom()
+    {
+        return this.dirtyBottom;
+    }
+    
+    /**
+     * The board has been drawn, no rows have changed since
+     */
+    public void clean()
+    {
+        this.dirtyTop = getRows();
+        this.dirtyBottom = -1;
+    }
+    
+    /**
+     * Is the game over?
+     * @return true = yes, false = no
+     */
+    public boolean hasGameover()
+    {
+        return this.gameover;
+    }
+    
+    /**
+     * Assign game over.
+     * @param gameover true = yes, false = no
+     */
+    public void setGameover(final boolean gameover)
+    {
+        this.gameover = gameover;
+    }
+    
+    /**
+     * flag a line completed
+     * @param complete true if there is a completed line, false otherwise
+     */
+    public void setComplete(final boolean complete)
+    {
+        this.complete = complete;
+    }
+    
+    /**
+     * Do we have at least 1 completed line?
+     * @return true = yes, false = no
+     */
+    public boolean hasComplete()
+    {
+        return this.complete;
+    }
+    
+    /**
+     * Add the piece to the board
+     * @param piece The piece we want to add
+     */
+    public void add(final Piece piece)
+    {
+        final Shape shape = piece.getShape();
+        
+        //check each block in the piece
+        for (int index = 0; index < shape.getSize(); index++)
+        {
+            //add it to the board at the absolute position
+            setBlock(shape.getCol(index) + piece.getCol(), shape.getRow(index) + piece.getRow(), piece.getBlocks()[index]);
+        }
+    }
+    
+    /**
+     * Is the piece in bounds of the board?
+     * @param piece The piece we want to check
+     * @return true if every block of the piece is within the columns and above the bottom, false otherwise
+     */
+    public boolean hasBounds(final Piece piece)
+    {
+        return piece.hasBounds(getCols(), getRows());
+    }
+    
+    /**
+     * Does a block already occupy the where the piece is on the board?
+     * @param piece The piece we want to check
+     * @return true if a block already exists where the piece is located, false otherwise
+     */
+    public boolean hasBlock(final Piece piece)
+    {
+        return hasBlock(piece.getShape(), piece.getCol(), piece.getRow());
+    }
+    
+    /**
+     * Does a block already occupy where a shape would be on the board?<br>
+     * Only the cells of the shape are checked, a cell off the board is never occupied
+     * @param shape The layout of the blocks
+     * @param col The column of the piece location
+     * @param row The row of the piece location
+     * @return true if a block already exists where the shape would be located, false otherwise
+     */
+    public boolean hasBlock(final Shape shape, final int col, final int row)
+    {
+        return getBitboard().hasBlock(shape, col, row);
+    }
+    
+    /**
+     * Is there room for the piece on the board?
+     * @param piece The piece we want to check
+     * @return true if the piece is in bounds and no block is in the way, false otherwise
+     */
+    public boolean hasRoom(final Piece piece)
+    {
+        return hasRoom(piece.getShape(), piece.getCol(), piece.getRow());
+    }
+    
+    /**
+     * Is there room for a shape on the board?
+     * @param shape The layout of the blocks
+     * @param col The column of the piece location
+     * @param row The row of the piece location
+     * @return true if the shape is in bounds and no block is in the way, false otherwise
+     */
+    public boolean hasRoom(final Shape shape, final int col, final int row)
+    {
+        return getBitboard().hasRoom(shape, col, row);
+    }
+    
+    /**
+     * Does a block already occupy the specified location on the board?
+     * @param col Column
+     * @param row Row
+     * @return true if a block exists at the specified location, otherwise false
+     */
+    public boolean hasBlock(final int col, final int row)
+    {
+        return getBitboard().hasBlock(col, row);
+    }
+    
+    /**
+     * Assign the block at the specified location.<br>
+     * The bit masks will be updated to match
+     * @param col Column
+     * @param row Row
+     * @param block The block we want to assign
+     */
+    public void setBlock(final int col, final int row, final Block block)
+    {
+        this.blocks[index(row)][col] = block;
+        
+        setDirty(row, row);
+        
+        if (block == null)
+        {
+            getBitboard().clear(col, row);
+        }
+        else
+        {
+            switch (block.getType())
+            {
+                case Challenge:
+                    getBitboard().fill(col, row, Bitboard.KIND_CHALLENGE);
+                    break;
+                
+                case Cleared:
+                    getBitboard().fill(col, row, Bitboard.KIND_CLEARED);
+                    break;
+                
+                default:
+                    getBitboard().fill(col, row, Bitboard.KIND_BLOCK);
+                    break;
+            }
+        }
+    }
+    
+    /**
+     * Get the block at the specified location
+     * @param col Column
+     * @param row Row
+     * @return The block at the location, null if there is no block
+     */
+    public Block getBlock(final int col, final int row)
+    {
+        return this.blocks[index(row)][col];
+    }
+    
+    /**
+     * Get the index of a row in the table
+     * @param row Row
+     * @return The index in the table where the row is kept
+     * @throws ArrayIndexOutOfBoundsException If the row is not on the board
+     */
+    private int index(final int row)
+    {
+        if (row < 0 || row >= getRows())
+            throw new ArrayIndexOutOfBoundsException(row);
+        
+        final int index = this.base + row;
+        
+        return (index < getRows()) ? index : index - getRows();
+    }
+    
+    /**
+     * Get the block pool
+     * @return The blocks removed from the board that can be used again
+     */
+    public BlockPool getPool()
+    {
+        return this.pool;
+    }
+    
+    /**
+     * Get the occupancy of the board
+     * @return The bit masks of each row
+     */
+    public Bitboard getBitboard()
+    {
+        return this.bitboard;
+    }
+    
+    /**
+     * Remove the completed rows and drop the remaining blocks in a single pass from the bottom up.<br>
+     * The regular blocks of a row fall as long as the rows below are completely empty,
+     * challenge blocks never move and nothing above them falls past them
+     * @param cleared Where the removed rows are stored from the bottom up, needs room for every row
+     * @return The number of rows removed
+     */
+    public int clearRows(final int[] cleared)
+    {
+        //the number of rows removed
+        int count = 0;
+        
+        //the lowest row of the empty rows directly below the current row
+        int empty = Bitboard.NO_ROW;
+        
+        //start at the bottom and move north
+        for (int row = getRows() - 1; row >= 0; row--)
+        {
+            //the bit masks are not changed until we are done, so they still describe this row
+            long occupied = getBitboard().getRow(row);
+            
+            //the regular blocks in this row
+            long regular = getBitboard().getRegular(row);
+            
+            //remove the completed row
+            if (getBitboard().isComplete(row))
+            {
+                final Block[] cells = this.blocks[index(row)];
+                
+                for (int col = 0; col < getCols(); col++)
+                {
+                    //the block can be used again
+                    getPool().release(cells[col]);
+                    cells[col] = null;
+                }
+                
+                cleared[count++] = row;
+                occupied = 0;
+                regular = 0;
+                
+                setDirty(row, row);
+            }
+            
+            //move the regular blocks down if there is room
+            if (regular != 0 && empty != Bitboard.NO_ROW)
+            {
+                final int from = index(row);
+                final int to = index(empty);
+                
+                if (regular == occupied)
+                {
+                    //the whole row moves, swap it with the empty row
+                    final Block[] tmp = this.blocks[to];
+                    this.blocks[to] = this.blocks[from];
+                    this.blocks[from] = tmp;
+                }
+                else
+                {
+                    //the challenge blocks stay behind
+                    for (int col = 0; col < getCols(); col++)
+                    {
+                        if ((regular & (1L << col)) != 0)
+                        {
+                            this.blocks[to][col] = this.blocks[from][col];
+                            this.blocks[from][col] = null;
+                        }
+                    }
+                }
+                
+                occupied &= ~regular;
+                
+                //the blocks left this row and landed in the empty row
+                setDirty(row, empty);
+                
+                //the rows in between are still empty
+                empty--;
+            }
+            
+            //if this row is now completely empty, blocks above can fall into it
+            if (occupied == 0)
+            {
+                if (empty == Bitboard.NO_ROW)
+                    empty = row;
+            }
+            else
+            {
+                empty = Bitboard.NO_ROW;
+            }
+        }
+        
+        //the bit masks follow the same rules in their own single pass
+        getBitboard().clearCompleted();
+        
+        return count;
+    }
+    
+    /**
+     * For each row that is completed.<br>
+     * Each block in that row will have the Piece.Type.Cleared
+     */
+    public void markCompletedRows()
+    {
+        //check each row
+        for (int row = 0; row < getRows(); row++)
+        {
+            //if the current row is complete, change piece type for a blocks in the row
+            if (getBitboard().isComplete(row))
+            {
+                //mark all columns cleared
+                for (int col = 0; col < getCols(); col++)
+                {
+                    final Block block = getBlock(col, row);
+                    block.setType(Piece.Type.Cleared);
+                    
+                    //assign the block again so the bit masks know the type changed
+                    setBlock(col, row, block);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Get the count of completed rows
+     * @return The number of rows that have a block in every column
+     */
+    public int getCompletedRowCount()
+    {
+        return getBitboard().getCompletedCount();
+    }
+    
+    /**
+     * Populate the board for the challenge mode
+     * @param levelIndex The current assigned level
+     * @param random Object used to make random decisions
+     */
+    public void populateChallenge(final int levelIndex, final Random random)
+    {
+    	//the number of challenge blocks allowed
+    	final int limit = (levelIndex + 1) * 2;
+    	
+    	//the maximum amount of challenge blocks possible
+    	final int max = (getRows() - this.challengeStartRow) * this.challengePerRow;
+    	
+    	//the number of available rows where we can spawn challenge blocks
+    	int options = 0;
+    	
+    	//what is our limit
+    	int end = getRows() - ((limit / this.challengePerRow) + 2);
+    	
+    	//make sure we stay within bounds
+    	if (end < this.challengeStartRow)
+    		end = this.challengeStartRow;
+    	
+    	//populate list of possible rows
+    	for (int row = getRows() - 1; row >= end; row--)
+    	{
+    		this.rowOptions[options++] = row;
+    	}
+    	
+    	//continue until we met our limit or the max allowed or we run out of rows to place blocks
+    	while (getCountChallenge() < limit && getCountChallenge() < max && options > 0)
+    	{
+    		//pick a random index
+    		final int index = random.nextInt(options);
+    		
+    		//get that row
+    		final int row = this.rowOptions[index];
+    		
+    		//if a single row has reached the limit
+    		if (getCountChallenge(row) >= this.challengePerRow)
+    		{
+    			//remove that row
+    			options = remove(this.rowOptions, options, index);
+    		}
+    		else
+    		{
+    			//the number of columns to choose from
+    			int columns = 0;
+    			
+    			for (int col = 0; col < getCols(); col++)
+    			{
+    				//if there is no block it is a possibility
+    				if (getBlock(col, row) == null)
+    					this.colOptions[columns++] = col;
+    			}
+    			
+    			//pick random column
+    			final int column = this.colOptions[random.nextInt(columns)];
+    			
+    			//place challenge block at our chosen location
+    			setBlock(column, row, getPool().obtain(Block.NO_GROUP, Piece.Type.Challenge));
+    		}
+    	}
+    }
+    
+    /**
+     * Count the challenge blocks
+     * @return The total number of challenge blocks
+     */
+    public int getCountChallenge()
+    {
+    	//track the count
+    	int count = 0;
+    	
+    	for (int row = 0; row < getRows(); row++)
+    	{
+    		count += getCountChallenge(row);
+    	}
+    	
+    	//return result
+    	return count;
+    }
+    
+    /**
+     * Count the challenge blocks
+     * @param row The row we want to count
+     * @return The total number of challenge blocks
+     */
+    public int getCountChallenge(final int row)
+    {
+    	return getBitboard().getChallengeCount(row);
+    }
+    
+    /**
+     * Add penalty to the board.<br>
+     * Here we will push up all blocks by 1 row and add a row of random blocks at the bottom
+     * @param penalty The number of lines penalized
+     * @param random Object used to make random decisions
+     */
+    public void addPenalty(int penalty, final Random random)
+    {
+    	while (penalty > 0)
+    	{
+    		//if there are already blocks at the first row, the game will be over
+    		if (!getBitboard().isEmpty(0))
+    			setGameover(true);
+	    	
+	    	//the top row is pushed off the board, its blocks can be used again
+	    	final Block[] top = this.blocks[index(0)];
+    		
+    		for (int col = 0; col < getCols(); col++)
+    		{
+    			getPool().release(top[col]);
+    			top[col] = null;
+    		}
+	    	
+	    	//every row moves up by moving the start of the ring, the old top row is now the empty bottom row
+	    	this.base = index(1);
+	    	getBitboard().shiftUp();
+	    	
+	    	//every row has moved
+	    	invalidate();
+			
+			//the number of columns to choose from
+			int columns = 0;
+			
+			//add columns to list that we will pick from
+			for (int col = 0; col < getCols(); col++)
+			{
+				this.colOptions[columns++] = col;
+			}
+			
+			//continue until we have met the blocks per row requirement
+			while (columns > getCols() - this.challengePerRow)
+			{
+				//pick random index
+				final int index = random.nextInt(columns);
+				
+				//pick random column
+				final int column = this.colOptions[index];
+				
+				//block will be added to the last row
+				final int row = getRows() - 1;
+				
+				//place challenge block at our chosen location
+				setBlock(column, row, getPool().obtain(Block.NO_GROUP, Piece.Type.Challenge));
+				
+				//remove column from our list
+				columns = remove(this.colOptions, columns, index);
+		 	}
+			
+			//take away 1 penalty
+			penalty--;
+    	}
+    }
+    
+    /**
+     * Remove a value from a list of options, the order of the remaining options is kept
+     * @param options The options
+     * @param size The number of options
+     * @param index The index of the option to remove
+     * @return The number of options left
+     */
+    private static int remove(final int[] options, final int size, final int index)
+    {
+        System.arraycopy(options, index + 1, options, index, size - index - 1);
+        return size - 1;
+    }
+}
@@ -0,0 +1,452 @@
+package com.gamesbykevin.fallingblocks.engine;
+
+import com.gamesbykevin.fallingblocks.board.piece.Kicks;
+import com.gamesbykevin.fallingblocks.board.piece.Piece;
+import com.gamesbykevin.fallingblocks.board.piece.Shape;
+
+import java.util.Random;
+
+/**
+ * The game of a single player without any device code.<br>
+ * Pieces are created, moved and placed here, the time comes from the clock and
+ * anything the player should hear about is sent to the event listener
+ * @author GOD
+ */
+public final class Simulation
+{
+    /**
+     * The number of times the game is updated each second, on the device and headless
+     */
+    public static final int UPDATES_PER_SECOND = 60;
+    
+    /**
+     * The game time that passes each update (nanoseconds)
+     */
+    public static final long TICK = 1000000000L / UPDATES_PER_SECOND;
+    
+    //the board where pieces will fall
+    private final Field field;
+    
+    //the source of time
+    private final Clock clock;
+    
+    //used to pick pieces and penalty blocks
+    private final Random random;
+    
+    //who we tell about events, if anyone
+    private EventListener listener;
+    
+    //the current and next piece
+    private Piece current, next;
+    
+    //the time of the previous piece drop
+    private long time;
+    
+    //the time the completed line started
+    private long completedTime;
+    
+    //the time to wait before dropping the piece
+    private long dropDelay = Field.COMPLETED_LINE_DELAY;
+    
+    //the desired action
+    private Action action;
+    
+    //how bad is this player penalized?
+    private int penalty;
+    
+    //the total number of lines cleared
+    private int lines;
+    
+    //the total number of pieces placed
+    private int pieces;
+    
+    //the rows removed by the latest line clear
+    private final int[] cleared;
+    
+    /**
+     * Create a new simulation
+     * @param field The board where pieces will fall
+     * @param clock The source of time
+     * @param random Object used to pick pieces and penalty blocks
+     */
+    public Simulation(final Field field, final Clock clock, final Random random)
+    {
+        this.field = field;
+        this.clock = clock;
+        this.random = random;
+        this.cleared = new int[field.getRows()];
+        
+        //store the previous piece drop time
+        resetTime();
+    }
+    
+    /**
+     * Reset the game, the board is not changed
+     */
+    public void reset()
+    {
+        setAction(null);
+        resetTime();
+        
+        //the pieces in play were never added to the board, their blocks can be used again
+        if (this.current != null)
+            this.current.dispose();
+        if (this.next != null)
+            this.next.dispose();
+        
+        this.current = null;
+        this.next = null;
+        this.lines = 0;
+        this.pieces = 0;
+    }
+    
+    /**
+     * Get the board
+     * @return The board where pieces will fall
+     */
+    public Field getField()
+    {
+        return this.field;
+    }
+    
+    /**
+     * Get the random object
+     * @return Object used to pick pieces and penalty blocks
+     */
+    public Random getRandom()
+    {
+        return this.random;
+    }
+    
+    /**
+     * Assign the event listener
+     * @param listener Who we tell about events, null for nobody
+     */
+    public void setListener(final EventListener listener)
+    {
+        this.listener = listener;
+    }
+    
+    /**
+     * Tell the listener about the event
+     * @param event The event that happened
+     */
+    private void fire(final Event event)
+    {
+        if (this.listener != null)
+            this.listener.onEvent(event);
+    }
+    
+    /**
+     * Get the current piece
+     * @return The current piece in play
+     */
+    public Piece getCurrent()
+    {
+        return this.current;
+    }
+    
+    /**
+     * Get the next piece
+     * @return The next piece coming up
+     */
+    public Piece getNext()
+    {
+        return this.next;
+    }
+    
+    /**
+     * Set the drop delay
+     * @param dropDelay The time to wait until we apply gravity (nanoseconds)
+     */
+    public void setDropDelay(final long dropDelay)
+    {
+        this.dropDelay = dropDelay;
+    }
+    
+    /**
+     * Get the drop delay
+     * @return The time to wait until we apply gravity (nanoseconds)
+     */
+    public long getDropDelay()
+    {
+        return this.dropDelay;
+    }
+    
+    /**
+     * Reset the timer, from the previous piece drop
+     */
+    private void resetTime()
+    {
+        this.time = this.clock.getTime();
+    }
+    
+    /**
+     * Assign the action
+     * @param action The desired player action
+     */
+    public void setAction(final Action action)
+    {
+        this.action = action;
+    }
+    
+    /**
+     * Does the player have the assigned action
+     * @param action Action to check
+     * @return true = yes, otherwise false
+     */
+    private boolean hasAction(final Action action)
+    {
+        return (this.action == action);
+    }
+    
+    /**
+     * Penalize the player
+     * @param penalty The number of lines to penalize
+     */
+    public void penalize(final int penalty)
+    {
+    	this.penalty += penalty;
+    }
+    
+    /**
+     * Get the number of lines
+     * @return The total number of lines cleared
+     */
+    public int getLines()
+    {
+        return this.lines;
+    }
+    
+    /**
+     * Get the number of pieces
+     * @return The total number of pieces placed
+     */
+    public int getPieces()
+    {
+        return this.pieces;
+    }
+    
+    /**
+     * Rotate the current piece.<br>
+     * If the rotated piece doesn't fit where it is, each kick of the rotation is tried in order,
+     * the kicks up only while the piece can still fall and has lifts left
+     * @return true if the rotation was successful, false if every kick caused block collision or out of bounds
+     */
+    public boolean rotate()
+    {
+        //make sure the current piece exists
+        if (getCurrent() == null)
+            return false;
+        
+        //the shape after rotating clockwise, nothing changes unless it fits
+        final Shape shape = getCurrent().getShape(getCurrent().getRotation() + 1);
+        final Kicks kicks = Kicks.get(getCurrent().getType(), getCurrent().getRotation());
+        
+        //find the first kick with room
+        final int kick = getField().getBitboard().getKick(kicks, getCurrent().getShape(), shape, getCurrent().getCol(), getCurrent().getRow(), getCurrent().getLifts());
+        
+        //if not in bounds or blocked, the rotation is not successful
+        if (kick == Kicks.NONE)
+            return false;
+        
+        //move the piece by the kick and rotate clockwise
+        getCurrent().setCol(getCurrent().getCol() + kicks.getCol(kick));
+        getCurrent().setRow(getCurrent().getRow() + kicks.getRow(kick));
+        getCurrent().rotateClockwise();
+        
+        //a piece can only be moved up so many times
+        if (kicks.getRow(kick) < 0)
+            getCurrent().increaseLifts();
+        
+        //rotation was successful
+        return true;
+    }
+    
+    /**
+     * Create new pieces if they do not exist
+     * @throws Exception
+     */
+    private void createPiece() throws Exception
+    {
+        if (getCurrent() == null)
+        {
+            if (getNext() != null)
+            {
+                //set default start
+                getNext().setCol(getField().getStartCol());
+                getNext().setRow(Field.START_ROW);
+                
+                //assign to the current
+                this.current = getNext();
+                
+                //remove the next piece reference
+                this.next = null;
+            }
+            else
+            {
+                //create a new piece
+                this.current = new Piece(getField().getStartCol(), Field.START_ROW, getRandom(), getField().getPool());
+            }
+            
+            //reset timer
+            resetTime();
+            
+            //if the block is already occupied, the game is over
+            if (getField().hasBlock(getCurrent()))
+            	getField().setGameover(true);
+        }
+        
+        //create the next piece, if not exists
+        if (getNext() == null)
+            this.next = new Piece(0, 0, getRandom(), getField().getPool());
+    }
+    
+    /**
+     * Update the game: create pieces, apply gravity, handle the action and clear completed lines
+     * @throws Exception
+     */
+    public void update() throws Exception
+    {
+        //if there are no completed rows
+        if (!getField().hasComplete())
+        {
+            //if the game is over, don't continue
+            if (getField().hasGameover())
+                return;
+            
+            //make sure we have pieces
+            if (getCurrent() == null || getNext() == null)
+            {
+            	//if this player is penalized
+            	if (this.penalty > 0)
+            	{
+            		//add penalty
+            		getField().addPenalty(this.penalty, getRandom());
+            		
+            		//turn penalty off
+            		this.penalty = 0;
+            	}
+            	else
+            	{
+                    //create the piece
+                    createPiece();
+            	}
+            }
+            else
+            {
+                //check to see if it is time to drop a piece
+                if (hasAction(Action.MOVE_DOWN) || this.clock.getTime() - this.time >= getDropDelay())
+                {
+                    //move the row down 1
+                    getCurrent().increaseRow();
+                    
+                    //reset timer
+                    resetTime();
+                    
+                    /**
+                     * If the piece is not in bounds or in collision with another block
+                     */
+                    if (!getField().hasRoom(getCurrent()))
+                    {
+                        //move back up 1 row
+                        getCurrent().decreaseRow();
+                        
+                        //if the piece is still in collision with the board or not in bounds, we have game over
+                        if (!getField().hasRoom(getCurrent()))
+                        {
+                            //flag game over
+                            getField().setGameover(true);
+                            
+                            //no need to continue
+                            return;
+                        }
+                        
+                        try
+                        {
+	                        //add piece to board
+	                        getField().add(getCurrent());
+                        }
+                        catch (ArrayIndexOutOfBoundsException e)
+                        {
+                        	//if there is an out of bounds exception the game is over
+                        	getField().setGameover(true);
+                        }
+                        
+                        //count the piece
+                        this.pieces++;
+                        
+                        //if there is at least 1 completed row, flag complete
+                        if (getField().getCompletedRowCount() > 0)
+                        {
+                            //mark blocks completed
+                            getField().markCompletedRows();
+                            
+                            //set the board as complete
+                            getField().setComplete(true);
+                            this.completedTime = this.clock.getTime();
+                            
+                            fire(Event.CompletedLine);
+                        }
+                        else
+                        {
+                            fire(Event.PiecePlace);
+                        }
+                        
+                        //remove the current piece
+                        this.current = null;
+                    }
+                }
+                else
+                {
+                    //check if we are moving
+                    if (hasAction(Action.MOVE_RIGHT))
+                    {
+                        //remove action
+                        setAction(null);
+                        
+                        //move the piece
+                        getCurrent().increaseCol();
+                        
+                        //If the piece is not in bounds or in collision with another block
+                        if (!getField().hasRoom(getCurrent()))
+                            getCurrent().decreaseCol();
+                    }
+                    else if (hasAction(Action.MOVE_LEFT))
+                    {
+                        //remove action
+                        setAction(null);
+                        
+                        //move the piece
+                        getCurrent().decreaseCol();
+                        
+                        //If the piece is not in bounds or in collision with another block
+                        if (!getField().hasRoom(getCurrent()))
+                            getCurrent().increaseCol();
+                    }
+                    else if (hasAction(Action.MOVE_ROTATE))
+                    {
+                        //remove action
+                        setAction(null);
+                        
+                        //rotate and if successful
+                        if (rotate())
+                            fire(Event.PieceRotate);
+                    }
+                }
+            }
+        }
+        else
+        {
+            //check to see if the completed line timer is finished
+            if (this.clock.getTime() - this.completedTime >= Field.COMPLETED_LINE_DELAY)
+            {
+                //clear the rows and drop the pieces (if exists), then update the completed lines count
+                this.lines += getField().clearRows(this.cleared);
+                
+                //remove the completed line(s) flag
+                getField().setComplete(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.gamesbykevin.fallingblocks.engine;
+
+/**
+ * A clock that only moves when told to.<br>
+ * This lets a headless game run as fast as possible while still following the game timers
+ * @author GOD
+ */
+public final class StepClock implements Clock
+{
+    //the current time
+    private long time = 0;
+    
+    /**
+     * Move the clock forward
+     * @param duration The amount of time to add (nanoseconds)
+     */
+    public void advance(final long duration)
+    {
+        this.time += duration;
+    }
+    
+    @Override
+    public long getTime()
+    {
+        return this.time;
+    }
+}
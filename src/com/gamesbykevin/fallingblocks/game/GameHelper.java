@@ -5,13 +5,17 @@ import static com.gamesbykevin.fallingblocks.screen.OptionsScreen.MODE_FREE;
 import static com.gamesbykevin.fallingblocks.screen.OptionsScreen.MODE_VIEW_CPU;
 import static com.gamesbykevin.fallingblocks.screen.OptionsScreen.MODE_VS_CPU;
 import static com.gamesbykevin.fallingblocks.screen.OptionsScreen.MODE_ATTACK;
+import static com.gamesbykevin.fallingblocks.screen.OptionsScreen.SIZE_LARGE;
+import static com.gamesbykevin.fallingblocks.screen.OptionsScreen.SIZE_HUGE;
 
 import com.gamesbykevin.androidframework.awt.Button;
 import com.gamesbykevin.androidframework.resources.Audio;
 import com.gamesbykevin.androidframework.resources.Images;
+import com.gamesbykevin.fallingblocks.ai.Pilot;
 import com.gamesbykevin.fallingblocks.assets.Assets;
 import com.gamesbykevin.fallingblocks.board.Board;
 import com.gamesbykevin.fallingblocks.board.BoardHelper;
+import com.gamesbykevin.fallingblocks.engine.Field;
 import com.gamesbykevin.fallingblocks.panel.GamePanel;
 import com.gamesbykevin.fallingblocks.player.Cpu;
 import com.gamesbykevin.fallingblocks.player.Human;
@@ -29,8 +33,16 @@ public final class GameHelper
     private static final float DIFFICULTY_RATIO_NORMAL = 0.5f;
     private static final float DIFFICULTY_RATIO_HARD = 0.25f;
     
-    //the cpu pieces will fall faster
-    private static final float DIFFICULTY_CPU_EXTRA = 0.5f;
+    //the number of inputs the cpu makes each second
+    private static final int DIFFICULTY_CPU_SPEED_EASY = 3;
+    private static final int DIFFICULTY_CPU_SPEED_NORMAL = 6;
+    private static final int DIFFICULTY_CPU_SPEED_HARD = 12;
+    
+    //the dimensions of the larger boards
+    private static final int SIZE_LARGE_COLS = 12;
+    private static final int SIZE_LARGE_ROWS = 24;
+    private static final int SIZE_HUGE_COLS = 20;
+    private static final int SIZE_HUGE_ROWS = 40;
 	
     /**
      * The amount of health damage to apply to opponent
@@ -58,17 +70,40 @@ public final class GameHelper
      */
 	protected static final void reset(final Game game) throws Exception
 	{
+    	//recycle the previous players, the cpu has a worker thread to stop
+		for (Player player : game.getPlayers())
+		{
+			player.dispose();
+		}
+    	
     	//clear our players list
 		game.getPlayers().clear();
     	
     	//update the level select
     	updateLevelSelect(game);
     	
+    	//the size of every board in the game
+    	int cols = Field.DEFAULT_COLS;
+    	int rows = Field.DEFAULT_ROWS;
+    	
+    	switch (game.getScreen().getScreenOptions().getIndex(Key.Size))
+    	{
+	    	case SIZE_LARGE:
+	    		cols = SIZE_LARGE_COLS;
+	    		rows = SIZE_LARGE_ROWS;
+	    		break;
+	    	
+	    	case SIZE_HUGE:
+	    		cols = SIZE_HUGE_COLS;
+	    		rows = SIZE_HUGE_ROWS;
+	    		break;
+    	}
+        
         switch (game.getScreen().getScreenOptions().getIndex(Key.Mode))
         {
         	//free mode
 	        case MODE_FREE:
-	        	game.getPlayers().add(new Human(false));
+	        	game.getPlayers().add(new Human(false, cols, rows));
 	        	
 	        	//flag selection
 	        	game.getLevelSelect().setSelection(true);
@@ -76,7 +111,7 @@ public final class GameHelper
 	        
 	        //view cpu mode
 	        case MODE_VIEW_CPU:
-	        	game.getPlayers().add(new Cpu(false));
+	        	game.getPlayers().add(new Cpu(false, cols, rows));
 	        	
 	        	//flag selection
 	        	game.getLevelSelect().setSelection(true);
@@ -85,42 +120,47 @@ public final class GameHelper
 	        //vs cpu mode
 	        case MODE_VS_CPU:
 	        case MODE_ATTACK:
-	        	game.getPlayers().add(new Human(true));
-	        	game.getPlayers().add(new Cpu(true));
+	        	game.getPlayers().add(new Human(true, cols, rows));
+	        	game.getPlayers().add(new Cpu(true, cols, rows));
 	        	
 	        	//flag selection
 	        	game.getLevelSelect().setSelection(true);
 	        	break;
 	        	
 	        case MODE_CHALLENGE:
-	        	game.getPlayers().add(new Human(false));
+	        	game.getPlayers().add(new Human(false, cols, rows));
 	        	break;
         }
         
-        //determine the piece drop rate
+        //determine the piece drop rate, and how quick the cpu plays
         for (Player player : game.getPlayers())
         {
+        	int speed = Pilot.RATE_UNLIMITED;
+        	
         	switch (game.getScreen().getScreenOptions().getIndex(Key.Difficulty))
         	{
 	        	//easy
 	        	case 0:
 	        		player.setDropDelay((long)(Board.COMPLETED_LINE_DELAY * DIFFICULTY_RATIO_EASY));
+	        		speed = DIFFICULTY_CPU_SPEED_EASY;
 	        		break;
 	        		
 	        	//normal
 	        	case 1:
 	        		player.setDropDelay((long)(Board.COMPLETED_LINE_DELAY * DIFFICULTY_RATIO_NORMAL));
+	        		speed = DIFFICULTY_CPU_SPEED_NORMAL;
 	        		break;
 	        		
 	        	//hard
 	        	case 2:
 	        		player.setDropDelay((long)(Board.COMPLETED_LINE_DELAY * DIFFICULTY_RATIO_HARD));
+	        		speed = DIFFICULTY_CPU_SPEED_HARD;
 	        		break;
         	}
         	
-            //the cpu pieces will fall slightly faster to make the challenge more competitive
+            //the cpu pieces fall the same as ours, the difficulty is how quick the cpu makes its moves
             if (!player.isHuman())
-                player.setDropDelay((int)(player.getDropDelay() * DIFFICULTY_CPU_EXTRA));
+                ((Cpu)player).setActionsPerSecond(speed);
         }
         
         if (game.getPlayers() != null)
@@ -9,6 +9,7 @@ import com.gamesbykevin.androidframework.resources.Audio;
 import com.gamesbykevin.androidframework.resources.Images;
 
 import com.gamesbykevin.fallingblocks.assets.Assets;
+import com.gamesbykevin.fallingblocks.engine.Action;
 import com.gamesbykevin.fallingblocks.game.Game;
 import com.gamesbykevin.fallingblocks.player.Player;
 
@@ -178,7 +179,7 @@ public class Controller implements IController
             {
                 //if the player is pressing down, make the time expire to drop the piece
                 if (buttons.get(Assets.ImageGameKey.Fall).isVisible() && buttons.get(Assets.ImageGameKey.Fall).contains(x, y))
-                    player.setAction(Player.Action.MOVE_DOWN);
+                    player.setAction(Action.MOVE_DOWN);
             }
             
             if (action == MotionEvent.ACTION_UP)
@@ -187,7 +188,7 @@ public class Controller implements IController
                 if (buttons.get(Assets.ImageGameKey.Rotate).isVisible() && buttons.get(Assets.ImageGameKey.Rotate).contains(x, y))
                 {
                     //set action
-                    player.setAction(Player.Action.MOVE_ROTATE);
+                    player.setAction(Action.MOVE_ROTATE);
                     
                     //play sound effect
                     Audio.play(Assets.AudioGameKey.PieceRotate);
@@ -200,12 +201,12 @@ public class Controller implements IController
                 else if (buttons.get(Assets.ImageGameKey.Left).isVisible() && buttons.get(Assets.ImageGameKey.Left).contains(x, y))
                 {
                     //set action
-                    player.setAction(Player.Action.MOVE_LEFT);
+                    player.setAction(Action.MOVE_LEFT);
                 }
                 else if (buttons.get(Assets.ImageGameKey.Right).isVisible() && buttons.get(Assets.ImageGameKey.Right).contains(x, y))
                 {
                     //set action
-                    player.setAction(Player.Action.MOVE_RIGHT);
+                    player.setAction(Action.MOVE_RIGHT);
                 }
             }
         }
@@ -0,0 +1,287 @@
+package com.gamesbykevin.fallingblocks.headless;
+
+import com.gamesbykevin.fallingblocks.board.piece.Piece;
+import com.gamesbykevin.fallingblocks.board.piece.Shape;
+import com.gamesbykevin.fallingblocks.engine.Field;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The board as it was before the bit masks, one cell at a time.<br>
+ * Every rule here is the original cell by cell rule, nothing is cached and nothing is fast.
+ * It is only used to check the field and bit masks still follow the same rules
+ * @author GOD
+ */
+final class ReferenceBoard
+{
+    //the type of block in each cell, null if empty
+    private final Piece.Type[][] cells;
+    
+    //the dimensions of the board
+    private final int cols, rows;
+    
+    //the number of challenge blocks in a penalty row
+    private final int penaltyPerRow;
+    
+    //did a penalty push a block off the top
+    private boolean gameover = false;
+    
+    /**
+     * Create an empty board
+     * @param cols The number of columns
+     * @param rows The number of rows
+     * @param penaltyPerRow The number of challenge blocks in a penalty row
+     */
+    ReferenceBoard(final int cols, final int rows, final int penaltyPerRow)
+    {
+        this.cols = cols;
+        this.rows = rows;
+        this.penaltyPerRow = penaltyPerRow;
+        this.cells = new Piece.Type[rows][cols];
+    }
+    
+    /**
+     * Copy every cell of the field
+     * @param field The field to copy
+     */
+    void copy(final Field field)
+    {
+        for (int row = 0; row < this.rows; row++)
+        {
+            for (int col = 0; col < this.cols; col++)
+            {
+                this.cells[row][col] = (field.getBlock(col, row) == null) ? null : field.getBlock(col, row).getType();
+            }
+        }
+        
+        this.gameover = field.hasGameover();
+    }
+    
+    /**
+     * Get the type of block in a cell
+     * @param col Column
+     * @param row Row
+     * @return The type of block, null if the cell is empty
+     */
+    Piece.Type getType(final int col, final int row)
+    {
+        return this.cells[row][col];
+    }
+    
+    /**
+     * Did a penalty push a block off the top?
+     * @return true if the game is over, false otherwise
+     */
+    boolean hasGameover()
+    {
+        return this.gameover;
+    }
+    
+    /**
+     * Add the blocks of a piece
+     * @param piece The piece
+     */
+    void add(final Piece piece)
+    {
+        final Shape shape = piece.getShape();
+        
+        for (int index = 0; index < shape.getSize(); index++)
+        {
+            this.cells[piece.getRow() + shape.getRow(index)][piece.getCol() + shape.getCol(index)] = piece.getType();
+        }
+    }
+    
+    /**
+     * Is every cell of the row filled?
+     * @param row Row
+     * @return true if the row is complete, false otherwise
+     */
+    boolean isComplete(final int row)
+    {
+        for (int col = 0; col < this.cols; col++)
+        {
+            if (this.cells[row][col] == null)
+                return false;
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Change every block of the completed rows to cleared blocks
+     */
+    void markCompletedRows()
+    {
+        for (int row = 0; row < this.rows; row++)
+        {
+            if (isComplete(row))
+            {
+                for (int col = 0; col < this.cols; col++)
+                {
+                    this.cells[row][col] = Piece.Type.Cleared;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Remove the completed rows, then drop the rows above 1 row at a time until nothing moves
+     * @return The number of rows removed
+     */
+    int clearRows()
+    {
+        int count = 0;
+        
+        for (int row = 0; row < this.rows; row++)
+        {
+            if (isComplete(row))
+            {
+                for (int col = 0; col < this.cols; col++)
+                {
+                    this.cells[row][col] = null;
+                }
+                
+                count++;
+            }
+        }
+        
+        boolean check = true;
+        
+        while (check)
+        {
+            check = false;
+            
+            for (int row = this.rows - 2; row >= 0; row--)
+            {
+                //the row has blocks, the row below has none and no challenge blocks
+                if (!isEmpty(row) && isEmpty(row + 1) && getChallengeCount(row + 1) < 1)
+                {
+                    for (int col = 0; col < this.cols; col++)
+                    {
+                        if (this.cells[row][col] != null && !Piece.ignoreType(this.cells[row][col]))
+                        {
+                            this.cells[row + 1][col] = this.cells[row][col];
+                            this.cells[row][col] = null;
+                        }
+                    }
+                    
+                    check = true;
+                }
+            }
+        }
+        
+        return count;
+    }
+    
+    /**
+     * Push every row up and add a row of challenge blocks at the bottom, once for each line
+     * @param penalty The number of lines
+     * @param random Picks the columns of the challenge blocks
+     */
+    void addPenalty(int penalty, final Random random)
+    {
+        while (penalty > 0)
+        {
+            if (!isEmpty(0))
+                this.gameover = true;
+            
+            for (int row = 1; row < this.rows; row++)
+            {
+                for (int col = 0; col < this.cols; col++)
+                {
+                    this.cells[row - 1][col] = this.cells[row][col];
+                    this.cells[row][col] = null;
+                }
+            }
+            
+            final List<Integer> columns = new ArrayList<Integer>();
+            
+            for (int col = 0; col < this.cols; col++)
+            {
+                columns.add(col);
+            }
+            
+            while (columns.size() > this.cols - this.penaltyPerRow)
+            {
+                final int index = random.nextInt(columns.size());
+                
+                this.cells[this.rows - 1][columns.get(index)] = Piece.Type.Challenge;
+                
+                columns.remove(index);
+            }
+            
+            penalty--;
+        }
+    }
+    
+    /**
+     * Is the row empty?<br>
+     * Challenge and cleared blocks are not counted
+     * @param row Row
+     * @return true if there are no regular blocks in the row, false otherwise
+     */
+    boolean isEmpty(final int row)
+    {
+        for (int col = 0; col < this.cols; col++)
+        {
+            if (this.cells[row][col] != null && !Piece.ignoreType(this.cells[row][col]))
+                return false;
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Count the challenge blocks in a row
+     * @param row Row
+     * @return The number of challenge blocks
+     */
+    int getChallengeCount(final int row)
+    {
+        int count = 0;
+        
+        for (int col = 0; col < this.cols; col++)
+        {
+            if (this.cells[row][col] == Piece.Type.Challenge)
+                count++;
+        }
+        
+        return count;
+    }
+    
+    /**
+     * Get the height of a column
+     * @param col Column
+     * @return The distance from the bottom of the board to the highest block in the column
+     */
+    int getHeight(final int col)
+    {
+        for (int row = 0; row < this.rows; row++)
+        {
+            if (this.cells[row][col] != null)
+                return this.rows - row;
+        }
+        
+        return 0;
+    }
+    
+    /**
+     * Count the holes in a column
+     * @param col Column
+     * @return The number of empty cells below the highest block in the column
+     */
+    int getHoles(final int col)
+    {
+        int holes = 0;
+        
+        for (int row = this.rows - getHeight(col); row < this.rows; row++)
+        {
+            if (this.cells[row][col] == null)
+                holes++;
+        }
+        
+        return holes;
+    }
+}
@@ -0,0 +1,297 @@
+package com.gamesbykevin.fallingblocks.headless;
+
+import com.gamesbykevin.fallingblocks.ai.Search;
+import com.gamesbykevin.fallingblocks.ai.Weights;
+import com.gamesbykevin.fallingblocks.engine.Field;
+
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Play many cpu games without a device and summarize how well and how fast the cpu plays.<br>
+ * Each game has its own seed (seed + game number) so the results are the same for any number of threads.<br>
+ * Compile and run from the project directory:<br>
+ * javac -d bin/selfplay src/com/gamesbykevin/fallingblocks/{ai,engine,headless}/*.java src/com/gamesbykevin/fallingblocks/board/Bitboard.java src/com/gamesbykevin/fallingblocks/board/piece/*.java<br>
+ * java -cp bin/selfplay com.gamesbykevin.fallingblocks.headless.SelfPlay --games=1000 --seed=1 --out=selfplay.txt<br>
+ * Options: --games, --seed, --threads, --depth, --beam, --pieces (limit per game), --cols, --rows (board size), --profile (weights file), --out (summary file)
+ * @author GOD
+ */
+public final class SelfPlay
+{
+    /**
+     * The default number of games
+     */
+    public static final int DEFAULT_GAMES = 100;
+    
+    /**
+     * The default seed
+     */
+    public static final long DEFAULT_SEED = 1;
+    
+    /**
+     * The default limit of pieces per game, a good cpu can play forever
+     */
+    public static final int DEFAULT_PIECES = 1000;
+    
+    /**
+     * The default search depth, the same depth the cpu searches in the game (Cpu.SEARCH_DEPTH)
+     */
+    public static final int DEFAULT_DEPTH = Search.DEPTH_NEXT;
+    
+    //used to report times and rates in seconds
+    private static final long NANOS_PER_SECOND = 1000000000L;
+    
+    private SelfPlay()
+    {
+        //no instances
+    }
+    
+    /**
+     * Run the games and write the summary
+     * @param args Options in the form --name=value
+     * @throws Exception
+     */
+    public static void main(final String[] args) throws Exception
+    {
+        int games = DEFAULT_GAMES;
+        long seed = DEFAULT_SEED;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int depth = DEFAULT_DEPTH;
+        int beamWidth = Search.BEAM_UNLIMITED;
+        int pieces = DEFAULT_PIECES;
+        int cols = Field.DEFAULT_COLS;
+        int rows = Field.DEFAULT_ROWS;
+        Weights weights = Weights.load();
+        String out = null;
+        
+        for (String arg : args)
+        {
+            final int index = arg.indexOf('=');
+            
+            if (!arg.startsWith("--") || index < 0)
+                throw new IllegalArgumentException("Options are expected as --name=value: " + arg);
+            
+            final String name = arg.substring(2, index);
+            final String value = arg.substring(index + 1);
+            
+            if (name.equals("games"))
+            {
+                games = Integer.parseInt(value);
+            }
+            else if (name.equals("seed"))
+            {
+                seed = Long.parseLong(value);
+            }
+            else if (name.equals("threads"))
+            {
+                threads = Integer.parseInt(value);
+            }
+            else if (name.equals("depth"))
+            {
+                depth = Integer.parseInt(value);
+            }
+            else if (name.equals("beam"))
+            {
+                beamWidth = Integer.parseInt(value);
+            }
+            else if (name.equals("pieces"))
+            {
+                pieces = Integer.parseInt(value);
+            }
+            else if (name.equals("cols"))
+            {
+                cols = Integer.parseInt(value);
+            }
+            else if (name.equals("rows"))
+            {
+                rows = Integer.parseInt(value);
+            }
+            else if (name.equals("profile"))
+            {
+                weights = load(value);
+            }
+            else if (name.equals("out"))
+            {
+                out = value;
+            }
+            else
+            {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        
+        //the games, in order
+        final List<SelfPlayGame> tasks = new ArrayList<SelfPlayGame>();
+        
+        for (int game = 0; game < games; game++)
+        {
+            tasks.add(new SelfPlayGame(seed + game, cols, rows, depth, beamWidth, pieces, weights));
+        }
+        
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        
+        final long start = System.nanoTime();
+        
+        try
+        {
+            //wait for every game to finish
+            for (Future<SelfPlayGame> future : executor.invokeAll(tasks))
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+        
+        final long elapsed = System.nanoTime() - start;
+        
+        final String summary = summarize(tasks, seed, threads, cols, rows, depth, beamWidth, pieces, weights, elapsed);
+        
+        System.out.print(summary);
+        
+        if (out != null)
+            write(out, summary);
+    }
+    
+    /**
+     * Create the summary of the games
+     * @param games The finished games
+     * @param seed The seed of the first game
+     * @param threads The number of threads
+     * @param cols The number of columns on the board
+     * @param rows The number of rows on the board
+     * @param depth The search depth
+     * @param beamWidth The search beam width
+     * @param pieces The limit of pieces per game
+     * @param weights The weights used to score each board
+     * @param elapsed The time it took to play all games (nanoseconds)
+     * @return The summary, one name=value per line
+     */
+    private static String summarize(final List<SelfPlayGame> games, final long seed, final int threads, final int cols, final int rows, final int depth, final int beamWidth, final int pieces, final Weights weights, final long elapsed)
+    {
+        long lines = 0, placed = 0, ticks = 0, evaluations = 0, searchTime = 0;
+        int minLines = Integer.MAX_VALUE, maxLines = 0, gameovers = 0;
+        
+        for (SelfPlayGame game : games)
+        {
+            lines += game.getLines();
+            placed += game.getPieces();
+            ticks += game.getTicks();
+            evaluations += game.getEvaluations();
+            searchTime += game.getSearchTime();
+            
+            minLines = Math.min(minLines, game.getLines());
+            maxLines = Math.max(maxLines, game.getLines());
+            
+            if (game.hasGameover())
+                gameovers++;
+        }
+        
+        final int count = Math.max(1, games.size());
+        final double seconds = elapsed / (double)NANOS_PER_SECOND;
+        
+        final StringBuilder builder = new StringBuilder();
+        
+        append(builder, "games", games.size());
+        append(builder, "seed", seed);
+        append(builder, "threads", threads);
+        append(builder, "board.cols", cols);
+        append(builder, "board.rows", rows);
+        append(builder, "depth", depth);
+        append(builder, "beam", beamWidth);
+        append(builder, "pieces.limit", pieces);
+        append(builder, "weights." + Weights.KEY_AGGREGATE_HEIGHT, weights.getAggregateHeight());
+        append(builder, "weights." + Weights.KEY_COMPLETED_LINES, weights.getCompletedLines());
+        append(builder, "weights." + Weights.KEY_HOLES, weights.getHoles());
+        append(builder, "weights." + Weights.KEY_BUMPINESS, weights.getBumpiness());
+        append(builder, "gameovers", gameovers);
+        append(builder, "lines.total", lines);
+        append(builder, "lines.min", (games.isEmpty()) ? 0 : minLines);
+        append(builder, "lines.mean", lines / (double)count);
+        append(builder, "lines.max", maxLines);
+        append(builder, "pieces.mean", placed / (double)count);
+        append(builder, "length.ticks.mean", ticks / (double)count);
+        append(builder, "length.seconds.mean", (ticks * SelfPlayGame.TICK) / (double)NANOS_PER_SECOND / count);
+        append(builder, "evaluations.total", evaluations);
+        append(builder, "evaluations.per.move", evaluations / (double)Math.max(1, placed));
+        append(builder, "evaluations.per.second", evaluations / seconds);
+        append(builder, "evaluations.per.search.second", evaluations / (searchTime / (double)NANOS_PER_SECOND));
+        append(builder, "games.per.second", games.size() / seconds);
+        append(builder, "pieces.per.second", placed / seconds);
+        append(builder, "elapsed.seconds", seconds);
+        
+        return builder.toString();
+    }
+    
+    /**
+     * Add a line to the summary
+     * @param builder The summary
+     * @param name The name of the value
+     * @param value The value
+     */
+    private static void append(final StringBuilder builder, final String name, final long value)
+    {
+        builder.append(name).append('=').append(value).append('\n');
+    }
+    
+    /**
+     * Add a line to the summary
+     * @param builder The summary
+     * @param name The name of the value
+     * @param value The value
+     */
+    private static void append(final StringBuilder builder, final String name, final double value)
+    {
+        builder.append(name).append('=').append(String.format(Locale.US, "%.3f", value)).append('\n');
+    }
+    
+    /**
+     * Load the weights from a profile file
+     * @param path The location of the profile
+     * @return The weights of the profile
+     * @throws IOException
+     */
+    static Weights load(final String path) throws IOException
+    {
+        final FileInputStream input = new FileInputStream(path);
+        
+        try
+        {
+            return Weights.load(input);
+        }
+        finally
+        {
+            input.close();
+        }
+    }
+    
+    /**
+     * Write the summary to a file
+     * @param path The location of the file
+     * @param summary The summary
+     * @throws IOException
+     */
+    private static void write(final String path, final String summary) throws IOException
+    {
+        final Writer writer = new FileWriter(path);
+        
+        try
+        {
+            writer.write(summary);
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+}
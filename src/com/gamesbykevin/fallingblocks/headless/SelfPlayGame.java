@@ -0,0 +1,214 @@
+package com.gamesbykevin.fallingblocks.headless;
+
+import com.gamesbykevin.fallingblocks.ai.Pilot;
+import com.gamesbykevin.fallingblocks.ai.Search;
+import com.gamesbykevin.fallingblocks.ai.Weights;
+import com.gamesbykevin.fallingblocks.board.piece.Piece;
+import com.gamesbykevin.fallingblocks.engine.Field;
+import com.gamesbykevin.fallingblocks.engine.Simulation;
+import com.gamesbykevin.fallingblocks.engine.StepClock;
+
+import java.util.concurrent.Callable;
+
+/**
+ * A single cpu game played without a device.<br>
+ * The clock moves one tick per update so nothing waits, the results are kept here when the game is done.<br>
+ * The board and search come from the table of the thread playing the game, only the results belong to the game
+ * @author GOD
+ */
+public final class SelfPlayGame implements Callable<SelfPlayGame>
+{
+    /**
+     * The time that passes each update, the same as a game update on the device (nanoseconds)
+     */
+    public static final long TICK = Simulation.TICK;
+    
+    //the seed of the random pieces
+    private final long seed;
+    
+    //the size of the board
+    private final int cols, rows;
+    
+    //the search settings
+    private final int depth, beamWidth;
+    
+    //the weights used to score each board
+    private final Weights weights;
+    
+    //the game ends after this many pieces
+    private final int maxPieces;
+    
+    //the results
+    private int lines, pieces;
+    private long ticks;
+    private long evaluations;
+    private long searchTime;
+    private boolean gameover;
+    
+    /**
+     * Create a new game on a board of the regular size
+     * @param seed The seed of the random pieces
+     * @param depth The search depth
+     * @param beamWidth The search beam width
+     * @param maxPieces The game ends after this many pieces, even if it isn't over
+     * @param weights The weights used to score each board
+     */
+    public SelfPlayGame(final long seed, final int depth, final int beamWidth, final int maxPieces, final Weights weights)
+    {
+        this(seed, Field.DEFAULT_COLS, Field.DEFAULT_ROWS, depth, beamWidth, maxPieces, weights);
+    }
+    
+    /**
+     * Create a new game
+     * @param seed The seed of the random pieces
+     * @param cols The number of columns on the board
+     * @param rows The number of rows on the board
+     * @param depth The search depth
+     * @param beamWidth The search beam width
+     * @param maxPieces The game ends after this many pieces, even if it isn't over
+     * @param weights The weights used to score each board
+     */
+    public SelfPlayGame(final long seed, final int cols, final int rows, final int depth, final int beamWidth, final int maxPieces, final Weights weights)
+    {
+        this.seed = seed;
+        this.cols = cols;
+        this.rows = rows;
+        this.depth = depth;
+        this.beamWidth = beamWidth;
+        this.weights = weights;
+        this.maxPieces = maxPieces;
+    }
+    
+    /**
+     * Play the game until it is over or the piece limit is reached
+     * @return This game with the results
+     * @throws Exception
+     */
+    @Override
+    public SelfPlayGame call() throws Exception
+    {
+        //reuse the board and search of this thread
+        final Table table = Table.get(this.cols, this.rows);
+        table.reset(this.seed);
+        
+        final StepClock clock = table.getClock();
+        final Field field = table.getField();
+        final Simulation simulation = table.getSimulation();
+        final Pilot pilot = table.getPilot();
+        
+        final Search search = table.getSearch();
+        search.setDepth(this.depth);
+        search.setBeamWidth(this.beamWidth);
+        search.setWeights(this.weights);
+        
+        //the piece we have a destination for
+        Piece planned = null;
+        
+        while (!field.hasGameover() && simulation.getPieces() < this.maxPieces)
+        {
+            final Piece current = simulation.getCurrent();
+            
+            if (current != null)
+            {
+                //find the destination once for each piece
+                if (current != planned)
+                {
+                    planned = current;
+                    
+                    final Piece next = simulation.getNext();
+                    final boolean found = search.search(field.getBitboard(), current.getType(), current.getRotation(), current.getCol(), current.getRow(), (next != null) ? next.getType() : null);
+                    
+                    this.evaluations += search.getEvaluations();
+                    this.searchTime += search.getTime();
+                    
+                    pilot.setDestination(found, search.getPath());
+                }
+                
+                //move the piece, and drop it once it is in place
+                simulation.setAction(pilot.getAction(current, true, clock.getTime()));
+            }
+            
+            simulation.update();
+            clock.advance(TICK);
+            this.ticks++;
+        }
+        
+        this.lines = simulation.getLines();
+        this.pieces = simulation.getPieces();
+        this.gameover = field.hasGameover();
+        
+        return this;
+    }
+    
+    /**
+     * Get the seed
+     * @return The seed of the random pieces
+     */
+    public long getSeed()
+    {
+        return this.seed;
+    }
+    
+    /**
+     * Get the weights
+     * @return The weights used to score each board
+     */
+    public Weights getWeights()
+    {
+        return this.weights;
+    }
+    
+    /**
+     * Get the lines
+     * @return The number of lines cleared
+     */
+    public int getLines()
+    {
+        return this.lines;
+    }
+    
+    /**
+     * Get the pieces
+     * @return The number of pieces placed
+     */
+    public int getPieces()
+    {
+        return this.pieces;
+    }
+    
+    /**
+     * Get the game length
+     * @return The number of updates the game lasted
+     */
+    public long getTicks()
+    {
+        return this.ticks;
+    }
+    
+    /**
+     * Get the evaluations
+     * @return The number of boards scored by the search
+     */
+    public long getEvaluations()
+    {
+        return this.evaluations;
+    }
+    
+    /**
+     * Get the search time
+     * @return The total time spent searching (nanoseconds)
+     */
+    public long getSearchTime()
+    {
+        return this.searchTime;
+    }
+    
+    /**
+     * Did the game end?
+     * @return true if the board filled up, false if the piece limit was reached first
+     */
+    public boolean hasGameover()
+    {
+        return this.gameover;
+    }
+}
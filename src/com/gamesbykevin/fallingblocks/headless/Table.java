@@ -0,0 +1,126 @@
+package com.gamesbykevin.fallingblocks.headless;
+
+import com.gamesbykevin.fallingblocks.ai.Pilot;
+import com.gamesbykevin.fallingblocks.ai.Search;
+import com.gamesbykevin.fallingblocks.engine.Field;
+import com.gamesbykevin.fallingblocks.engine.Simulation;
+import com.gamesbykevin.fallingblocks.engine.StepClock;
+
+import java.util.Random;
+
+/**
+ * Everything needed to play a headless game.<br>
+ * Each thread has its own table that is reset between games, so playing thousands of games
+ * does not create a new board and search for each one
+ * @author GOD
+ */
+final class Table
+{
+    //the table of each thread
+    private static final ThreadLocal<Table> TABLES = new ThreadLocal<Table>();
+    
+    //the clock only moves when the game is updated
+    private final StepClock clock;
+    
+    //the board where pieces will fall
+    private final Field field;
+    
+    //used to pick pieces, seeded for each game
+    private final Random random;
+    
+    //the game rules
+    private final Simulation simulation;
+    
+    //finds the best placement
+    private final Search search;
+    
+    //moves the piece to the placement
+    private final Pilot pilot;
+    
+    private Table(final int cols, final int rows)
+    {
+        this.clock = new StepClock();
+        this.field = new Field(cols, rows);
+        this.random = new Random();
+        this.simulation = new Simulation(this.field, this.clock, this.random);
+        this.search = new Search(cols, rows);
+        this.pilot = new Pilot(cols, rows);
+    }
+    
+    /**
+     * Get the table of the calling thread.<br>
+     * A new table is only created the first time or when the board size changes
+     * @param cols The number of columns on the board
+     * @param rows The number of rows on the board
+     * @return The table, ready for a new game
+     */
+    static Table get(final int cols, final int rows)
+    {
+        Table table = TABLES.get();
+        
+        if (table == null || table.getField().getCols() != cols || table.getField().getRows() != rows)
+        {
+            table = new Table(cols, rows);
+            TABLES.set(table);
+        }
+        
+        return table;
+    }
+    
+    /**
+     * Clear the board and pieces for a new game
+     * @param seed The seed of the random pieces
+     */
+    void reset(final long seed)
+    {
+        this.random.setSeed(seed);
+        this.field.reset();
+        this.simulation.reset();
+        this.pilot.reset();
+    }
+    
+    /**
+     * Get the clock
+     * @return The clock that only moves when told to
+     */
+    StepClock getClock()
+    {
+        return this.clock;
+    }
+    
+    /**
+     * Get the field
+     * @return The board where pieces will fall
+     */
+    Field getField()
+    {
+        return this.field;
+    }
+    
+    /**
+     * Get the simulation
+     * @return The game rules
+     */
+    Simulation getSimulation()
+    {
+        return this.simulation;
+    }
+    
+    /**
+     * Get the search
+     * @return The object that finds the best placement
+     */
+    Search getSearch()
+    {
+        return this.search;
+    }
+    
+    /**
+     * Get the pilot
+     * @return The object that moves the piece to the placement
+     */
+    Pilot getPilot()
+    {
+        return this.pilot;
+    }
+}
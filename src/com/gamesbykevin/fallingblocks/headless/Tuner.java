@@ -0,0 +1,440 @@
+package com.gamesbykevin.fallingblocks.headless;
+
+import com.gamesbykevin.fallingblocks.ai.Search;
+import com.gamesbykevin.fallingblocks.ai.Weights;
+import com.gamesbykevin.fallingblocks.engine.Field;
+
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Find better cpu weights with a genetic search over headless games.<br>
+ * Each generation every candidate plays the same games (the same seeds) and is scored by the lines it clears.
+ * The worst candidates are replaced by children of the best, a child is the fitness weighted
+ * average of 2 parents with the occasional mutation, and every candidate is scaled to a length of 1.<br>
+ * Candidates search as deep as the cpu does in the game, so the weights are tuned for the search that uses them.
+ * The games of all candidates run on a fixed pool with one thread per core, and each thread reuses its own board and search.<br>
+ * The weights of the best candidate of the last generation are written as a profile, copy it over ai/weights.properties to use it in the game.<br>
+ * java -cp bin/selfplay com.gamesbykevin.fallingblocks.headless.Tuner --generations=20 --out=weights.properties<br>
+ * Options: --population, --generations, --games (per candidate), --pieces (limit per game), --seed, --threads, --depth, --beam, --cols, --rows (board size), --out (profile file)
+ * @author GOD
+ */
+public final class Tuner
+{
+    /**
+     * The default number of candidates
+     */
+    public static final int DEFAULT_POPULATION = 50;
+    
+    /**
+     * The default number of generations
+     */
+    public static final int DEFAULT_GENERATIONS = 10;
+    
+    /**
+     * The default number of games each candidate plays every generation
+     */
+    public static final int DEFAULT_GAMES = 10;
+    
+    /**
+     * The default limit of pieces per game, this keeps good candidates from playing forever
+     */
+    public static final int DEFAULT_PIECES = 500;
+    
+    /**
+     * The default profile written
+     */
+    public static final String DEFAULT_OUT = Weights.PROFILE;
+    
+    /**
+     * The portion of the population that competes to be a parent
+     */
+    public static final double TOURNAMENT_RATIO = 0.1;
+    
+    /**
+     * The portion of the population replaced by children each generation
+     */
+    public static final double REPLACE_RATIO = 0.3;
+    
+    /**
+     * The chance a child is mutated
+     */
+    public static final double MUTATION_CHANCE = 0.05;
+    
+    /**
+     * The most a mutation changes a single weight, up or down
+     */
+    public static final double MUTATION_AMOUNT = 0.2;
+    
+    //the candidates and the lines each cleared in the latest generation
+    private final Weights[] population;
+    private final long[] fitness;
+    
+    //used to create and pick candidates
+    private final Random random;
+    
+    //the search settings
+    private final int depth, beamWidth;
+    
+    //the size of the board
+    private final int cols, rows;
+    
+    //the games played by each candidate
+    private final int games, pieces;
+    
+    //plays the games
+    private final ExecutorService executor;
+    
+    //the seed of the first game of the next generation
+    private long seed;
+    
+    /**
+     * Create the tuner with a random population
+     * @param population The number of candidates
+     * @param games The number of games each candidate plays every generation
+     * @param pieces The limit of pieces per game
+     * @param cols The number of columns on the board
+     * @param rows The number of rows on the board
+     * @param depth The search depth
+     * @param beamWidth The search beam width
+     * @param seed The seed of the population and games
+     * @param executor Plays the games
+     */
+    public Tuner(final int population, final int games, final int pieces, final int cols, final int rows, final int depth, final int beamWidth, final long seed, final ExecutorService executor)
+    {
+        if (population < 2)
+            throw new IllegalArgumentException("A child needs 2 parents, the population has to be at least 2: " + population);
+        
+        this.population = new Weights[population];
+        this.fitness = new long[population];
+        this.games = games;
+        this.pieces = pieces;
+        this.cols = cols;
+        this.rows = rows;
+        this.depth = depth;
+        this.beamWidth = beamWidth;
+        this.seed = seed;
+        this.executor = executor;
+        this.random = new Random(seed);
+        
+        //the current weights compete too
+        this.population[0] = Weights.DEFAULT.normalize();
+        
+        for (int index = 1; index < population; index++)
+        {
+            this.population[index] = new Weights(
+                random.nextDouble() - 0.5,
+                random.nextDouble() - 0.5,
+                random.nextDouble() - 0.5,
+                random.nextDouble() - 0.5
+            ).normalize();
+        }
+    }
+    
+    /**
+     * Play the games of every candidate and score them
+     * @throws Exception
+     */
+    public void evaluate() throws Exception
+    {
+        final List<SelfPlayGame> tasks = new ArrayList<SelfPlayGame>();
+        
+        //every candidate plays the same games so they are compared fairly
+        for (int index = 0; index < this.population.length; index++)
+        {
+            for (int game = 0; game < this.games; game++)
+            {
+                tasks.add(new SelfPlayGame(this.seed + game, this.cols, this.rows, this.depth, this.beamWidth, this.pieces, this.population[index]));
+            }
+        }
+        
+        //the next generation plays new games
+        this.seed += this.games;
+        
+        for (Future<SelfPlayGame> future : this.executor.invokeAll(tasks))
+        {
+            future.get();
+        }
+        
+        Arrays.fill(this.fitness, 0);
+        
+        for (int task = 0; task < tasks.size(); task++)
+        {
+            this.fitness[task / this.games] += tasks.get(task).getLines();
+        }
+    }
+    
+    /**
+     * Replace the worst candidates with children of the best
+     */
+    public void evolve()
+    {
+        final Integer[] order = getOrder();
+        
+        //the number of candidates replaced
+        final int replace = (int)(this.population.length * REPLACE_RATIO);
+        
+        final Weights[] children = new Weights[replace];
+        
+        for (int index = 0; index < children.length; index++)
+        {
+            children[index] = createChild();
+        }
+        
+        //the children take the place of the worst candidates
+        for (int index = 0; index < children.length; index++)
+        {
+            this.population[order[this.population.length - 1 - index]] = children[index];
+        }
+    }
+    
+    /**
+     * Create a child from the 2 best candidates of a random tournament.<br>
+     * The candidates of a tournament are all different, so the parents are never the same candidate
+     * @return The child weights
+     */
+    private Weights createChild()
+    {
+        final int size = Math.min(this.population.length, Math.max(2, (int)(this.population.length * TOURNAMENT_RATIO)));
+        
+        //draw without replacement by swapping each drawn candidate to the front
+        final int[] candidates = new int[this.population.length];
+        
+        for (int index = 0; index < candidates.length; index++)
+        {
+            candidates[index] = index;
+        }
+        
+        int first = -1, second = -1;
+        
+        for (int count = 0; count < size; count++)
+        {
+            final int swap = count + this.random.nextInt(candidates.length - count);
+            final int index = candidates[swap];
+            candidates[swap] = candidates[count];
+            candidates[count] = index;
+            
+            if (first < 0 || this.fitness[index] > this.fitness[first])
+            {
+                second = first;
+                first = index;
+            }
+            else if (second < 0 || this.fitness[index] > this.fitness[second])
+            {
+                second = index;
+            }
+        }
+        
+        //the fitter parent has more say, add 1 so 2 parents without lines still have a child
+        final double a = this.fitness[first] + 1;
+        final double b = this.fitness[second] + 1;
+        
+        final Weights x = this.population[first];
+        final Weights y = this.population[second];
+        
+        final double[] weights = new double[] {
+            (x.getAggregateHeight() * a) + (y.getAggregateHeight() * b),
+            (x.getCompletedLines() * a) + (y.getCompletedLines() * b),
+            (x.getHoles() * a) + (y.getHoles() * b),
+            (x.getBumpiness() * a) + (y.getBumpiness() * b)
+        };
+        
+        //nudge a single weight now and then
+        if (this.random.nextDouble() < MUTATION_CHANCE)
+            weights[this.random.nextInt(weights.length)] += (this.random.nextDouble() * 2 - 1) * MUTATION_AMOUNT * (a + b);
+        
+        return new Weights(weights[0], weights[1], weights[2], weights[3]).normalize();
+    }
+    
+    /**
+     * Get the candidates ordered from best to worst
+     * @return The index of each candidate, best first
+     */
+    private Integer[] getOrder()
+    {
+        final Integer[] order = new Integer[this.population.length];
+        
+        for (int index = 0; index < order.length; index++)
+        {
+            order[index] = index;
+        }
+        
+        Arrays.sort(order, new Comparator<Integer>()
+        {
+            @Override
+            public int compare(final Integer a, final Integer b)
+            {
+                final long difference = fitness[b] - fitness[a];
+                return (difference > 0) ? 1 : (difference < 0) ? -1 : 0;
+            }
+        });
+        
+        return order;
+    }
+    
+    /**
+     * Get the best candidate
+     * @return The candidate that cleared the most lines in the latest generation
+     */
+    public Weights getBest()
+    {
+        return this.population[getOrder()[0]];
+    }
+    
+    /**
+     * Get the fitness of the best candidate
+     * @return The lines the best candidate cleared in the latest generation
+     */
+    public long getBestFitness()
+    {
+        return this.fitness[getOrder()[0]];
+    }
+    
+    /**
+     * Get the average fitness
+     * @return The average lines cleared per candidate in the latest generation
+     */
+    public double getMeanFitness()
+    {
+        long total = 0;
+        
+        for (long value : this.fitness)
+        {
+            total += value;
+        }
+        
+        return total / (double)Math.max(1, this.fitness.length);
+    }
+    
+    /**
+     * Run the tuner and write the best weights
+     * @param args Options in the form --name=value
+     * @throws Exception
+     */
+    public static void main(final String[] args) throws Exception
+    {
+        int population = DEFAULT_POPULATION;
+        int generations = DEFAULT_GENERATIONS;
+        int games = DEFAULT_GAMES;
+        int pieces = DEFAULT_PIECES;
+        long seed = SelfPlay.DEFAULT_SEED;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int depth = SelfPlay.DEFAULT_DEPTH;
+        int beamWidth = Search.BEAM_UNLIMITED;
+        int cols = Field.DEFAULT_COLS;
+        int rows = Field.DEFAULT_ROWS;
+        String out = DEFAULT_OUT;
+        
+        for (String arg : args)
+        {
+            final int index = arg.indexOf('=');
+            
+            if (!arg.startsWith("--") || index < 0)
+                throw new IllegalArgumentException("Options are expected as --name=value: " + arg);
+            
+            final String name = arg.substring(2, index);
+            final String value = arg.substring(index + 1);
+            
+            if (name.equals("population"))
+            {
+                population = Integer.parseInt(value);
+            }
+            else if (name.equals("generations"))
+            {
+                generations = Integer.parseInt(value);
+            }
+            else if (name.equals("games"))
+            {
+                games = Integer.parseInt(value);
+            }
+            else if (name.equals("pieces"))
+            {
+                pieces = Integer.parseInt(value);
+            }
+            else if (name.equals("seed"))
+            {
+                seed = Long.parseLong(value);
+            }
+            else if (name.equals("threads"))
+            {
+                threads = Integer.parseInt(value);
+            }
+            else if (name.equals("depth"))
+            {
+                depth = Integer.parseInt(value);
+            }
+            else if (name.equals("beam"))
+            {
+                beamWidth = Integer.parseInt(value);
+            }
+            else if (name.equals("cols"))
+            {
+                cols = Integer.parseInt(value);
+            }
+            else if (name.equals("rows"))
+            {
+                rows = Integer.parseInt(value);
+            }
+            else if (name.equals("out"))
+            {
+                out = value;
+            }
+            else
+            {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        
+        if (population < 2)
+            throw new IllegalArgumentException("The population needs at least 2 candidates");
+        
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        
+        try
+        {
+            final Tuner tuner = new Tuner(population, games, pieces, cols, rows, depth, beamWidth, seed, executor);
+            
+            for (int generation = 1; generation <= generations; generation++)
+            {
+                final long start = System.nanoTime();
+                
+                tuner.evaluate();
+                
+                final double seconds = (System.nanoTime() - start) / 1000000000.0;
+                
+                System.out.println(String.format(Locale.US, "generation=%d best=%d mean=%.1f seconds=%.2f weights={%s}",
+                    generation, tuner.getBestFitness(), tuner.getMeanFitness(), seconds, tuner.getBest()));
+                
+                //the last generation is not replaced so the best is the one just scored
+                if (generation < generations)
+                    tuner.evolve();
+            }
+            
+            final OutputStream output = new FileOutputStream(out);
+            
+            try
+            {
+                tuner.getBest().store(output, "Tuned over " + generations + " generations of " + population + " candidates, " + games + " games each");
+            }
+            finally
+            {
+                output.close();
+            }
+            
+            System.out.println("profile=" + out);
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.gamesbykevin.fallingblocks.headless;
+
+import com.gamesbykevin.fallingblocks.board.Bitboard;
+import com.gamesbykevin.fallingblocks.board.piece.Piece;
+import com.gamesbykevin.fallingblocks.board.piece.Shape;
+import com.gamesbykevin.fallingblocks.engine.Field;
+
+import java.util.Random;
+
+/**
+ * Play seeded games on the field and on the original cell by cell board side by side, and check they never differ.<br>
+ * Pieces are dropped where they land lowest, completed rows are marked and cleared, and penalty rows are added at random,
+ * after each change every cell, the bit masks, a copy of the bit masks and the column measurements are compared.
+ * Some games start with challenge blocks. The exit status is 1 if anything differs.<br>
+ * Compile and run from the project directory:<br>
+ * javac -d bin/selfplay src/com/gamesbykevin/fallingblocks/{ai,engine,headless}/*.java src/com/gamesbykevin/fallingblocks/board/Bitboard.java src/com/gamesbykevin/fallingblocks/board/piece/*.java<br>
+ * java -cp bin/selfplay com.gamesbykevin.fallingblocks.headless.Verify --games=1000 --seed=1<br>
+ * Options: --games, --seed, --pieces (limit per game), --cols, --rows (board size)
+ * @author GOD
+ */
+public final class Verify
+{
+    /**
+     * The default number of games
+     */
+    public static final int DEFAULT_GAMES = 1000;
+    
+    /**
+     * The default seed
+     */
+    public static final long DEFAULT_SEED = 1;
+    
+    /**
+     * The default limit of pieces per game
+     */
+    public static final int DEFAULT_PIECES = 500;
+    
+    /**
+     * One in this many pieces is followed by penalty rows
+     */
+    public static final int PENALTY_CHANCE = 8;
+    
+    /**
+     * The most penalty rows added at once
+     */
+    public static final int PENALTY_MAX = 4;
+    
+    /**
+     * One in this many games starts with challenge blocks
+     */
+    public static final int CHALLENGE_CHANCE = 4;
+    
+    /**
+     * The number of challenge levels
+     */
+    public static final int CHALLENGE_LEVELS = 48;
+    
+    //the number of comparisons made
+    private long checks = 0;
+    
+    //the pieces placed, rows cleared and penalty rows added in every game
+    private long pieces = 0, lines = 0, penalties = 0;
+    
+    private Verify()
+    {
+        //only created by main
+    }
+    
+    /**
+     * Play the games and report the first difference
+     * @param args Options in the form --name=value
+     * @throws Exception
+     */
+    public static void main(final String[] args) throws Exception
+    {
+        int games = DEFAULT_GAMES;
+        long seed = DEFAULT_SEED;
+        int pieces = DEFAULT_PIECES;
+        int cols = Field.DEFAULT_COLS;
+        int rows = Field.DEFAULT_ROWS;
+        
+        for (String arg : args)
+        {
+            final int index = arg.indexOf('=');
+            
+            if (!arg.startsWith("--") || index < 0)
+                throw new IllegalArgumentException("Options are expected as --name=value: " + arg);
+            
+            final String name = arg.substring(2, index);
+            final String value = arg.substring(index + 1);
+            
+            if (name.equals("games"))
+            {
+                games = Integer.parseInt(value);
+            }
+            else if (name.equals("seed"))
+            {
+                seed = Long.parseLong(value);
+            }
+            else if (name.equals("pieces"))
+            {
+                pieces = Integer.parseInt(value);
+            }
+            else if (name.equals("cols"))
+            {
+                cols = Integer.parseInt(value);
+            }
+            else if (name.equals("rows"))
+            {
+                rows = Integer.parseInt(value);
+            }
+            else
+            {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        
+        final Verify verify = new Verify();
+        final Field field = new Field(cols, rows);
+        
+        for (int game = 0; game < games; game++)
+        {
+            final String difference = verify.play(field, seed + game, pieces);
+            
+            if (difference != null)
+            {
+                System.out.println("game=" + (seed + game));
+                System.out.println("difference=" + difference);
+                System.exit(1);
+            }
+        }
+        
+        System.out.println("games=" + games);
+        System.out.println("seed=" + seed);
+        System.out.println("board.cols=" + cols);
+        System.out.println("board.rows=" + rows);
+        System.out.println("pieces=" + verify.pieces);
+        System.out.println("lines=" + verify.lines);
+        System.out.println("penalties=" + verify.penalties);
+        System.out.println("checks=" + verify.checks);
+        System.out.println("differences=0");
+    }
+    
+    /**
+     * Play a single game on the field and the reference board
+     * @param field The field, reset here
+     * @param seed The seed of the game
+     * @param limit The most pieces placed
+     * @return A description of the first difference, null if there are none
+     * @throws Exception
+     */
+    private String play(final Field field, final long seed, final int limit) throws Exception
+    {
+        final Random random = new Random(seed);
+        
+        //the penalty rows of both boards are picked the same way from the same seed
+        final long penaltySeed = random.nextLong();
+        final Random fieldPenalty = new Random(penaltySeed);
+        final Random referencePenalty = new Random(penaltySeed);
+        
+        final int[] cleared = new int[field.getRows()];
+        
+        field.reset();
+        
+        final ReferenceBoard reference = new ReferenceBoard(field.getCols(), field.getRows(), field.getChallengePerRow());
+        
+        if (random.nextInt(CHALLENGE_CHANCE) == 0)
+        {
+            //the challenge blocks are placed at random by the field, the reference starts from them
+            field.populateChallenge(random.nextInt(CHALLENGE_LEVELS), random);
+            reference.copy(field);
+        }
+        
+        String difference = compare(field, reference, "start");
+        
+        for (int count = 0; count < limit && difference == null; count++)
+        {
+            final Piece piece = new Piece(0, 0, random, field.getPool());
+            piece.setRotations(random.nextInt(Piece.TOTAL_ROTATIONS));
+            
+            //drop the piece where it lands lowest, ties go to a random column
+            if (!drop(field.getBitboard(), piece, random.nextInt(field.getCols())))
+            {
+                piece.dispose();
+                break;
+            }
+            
+            field.add(piece);
+            reference.add(piece);
+            this.pieces++;
+            difference = compare(field, reference, "piece " + count + " added");
+            
+            if (difference == null && field.getCompletedRowCount() > 0)
+            {
+                field.markCompletedRows();
+                reference.markCompletedRows();
+                difference = compare(field, reference, "piece " + count + " rows marked");
+                
+                if (difference == null)
+                {
+                    final int lines = field.clearRows(cleared);
+                    final int expected = reference.clearRows();
+                    this.lines += lines;
+                    
+                    difference = (lines != expected) ? "piece " + count + " cleared " + lines + " rows, expected " + expected : compare(field, reference, "piece " + count + " rows cleared");
+                }
+            }
+            
+            if (difference == null && random.nextInt(PENALTY_CHANCE) == 0)
+            {
+                final int penalty = 1 + random.nextInt(PENALTY_MAX);
+                
+                field.addPenalty(penalty, fieldPenalty);
+                reference.addPenalty(penalty, referencePenalty);
+                this.penalties += penalty;
+                difference = compare(field, reference, "piece " + count + " penalty " + penalty);
+                
+                if (difference == null && field.hasGameover())
+                    break;
+            }
+        }
+        
+        return difference;
+    }
+    
+    /**
+     * Place the piece in the column where it lands lowest, so rows are completed often.<br>
+     * Ties go to the first column from the start
+     * @param bitboard The board
+     * @param piece The piece
+     * @param start The first column tried
+     * @return true if the piece was placed, false if it fits in no column
+     */
+    private static boolean drop(final Bitboard bitboard, final Piece piece, final int start)
+    {
+        final Shape shape = piece.getShape();
+        
+        int best = Bitboard.NO_ROW;
+        
+        for (int offset = 0; offset < bitboard.getCols(); offset++)
+        {
+            final int col = (start + offset) % bitboard.getCols();
+            final int row = bitboard.getDropRow(shape, col);
+            
+            if (row > best)
+            {
+                best = row;
+                piece.setCol(col);
+                piece.setRow(row);
+            }
+        }
+        
+        return (best != Bitboard.NO_ROW);
+    }
+    
+    /**
+     * Compare the field with the reference board
+     * @param field The field
+     * @param reference The reference board
+     * @param step What just happened
+     * @return A description of the first difference, null if there are none
+     */
+    private String compare(final Field field, final ReferenceBoard reference, final String step)
+    {
+        final Bitboard bitboard = field.getBitboard();
+        
+        //a copy has to match as well, the search only works on copies
+        final Bitboard copy = new Bitboard(field.getCols(), field.getRows());
+        copy.copy(bitboard);
+        
+        if (field.hasGameover() != reference.hasGameover())
+            return step + ": game over is " + field.hasGameover();
+        
+        int completed = 0, aggregate = 0, holes = 0, bumpiness = 0;
+        
+        for (int row = 0; row < field.getRows(); row++)
+        {
+            long occupied = 0, challenge = 0;
+            
+            for (int col = 0; col < field.getCols(); col++)
+            {
+                final Piece.Type type = reference.getType(col, row);
+                final Piece.Type actual = (field.getBlock(col, row) == null) ? null : field.getBlock(col, row).getType();
+                
+                if (type != actual)
+                    return step + ": cell " + col + "," + row + " is " + actual + ", expected " + type;
+                
+                if (type != null)
+                    occupied |= (1L << col);
+                if (type == Piece.Type.Challenge)
+                    challenge |= (1L << col);
+            }
+            
+            if (bitboard.getRow(row) != occupied || copy.getRow(row) != occupied)
+                return step + ": row " + row + " mask is " + Long.toBinaryString(bitboard.getRow(row)) + ", expected " + Long.toBinaryString(occupied);
+            
+            if (bitboard.getChallenge(row) != challenge || copy.getChallenge(row) != challenge)
+                return step + ": row " + row + " challenge mask is " + Long.toBinaryString(bitboard.getChallenge(row)) + ", expected " + Long.toBinaryString(challenge);
+            
+            if (bitboard.isEmpty(row) != reference.isEmpty(row))
+                return step + ": row " + row + " empty is " + bitboard.isEmpty(row);
+            
+            if (reference.isComplete(row))
+                completed++;
+            
+            this.checks++;
+        }
+        
+        for (int col = 0; col < field.getCols(); col++)
+        {
+            final int height = reference.getHeight(col);
+            
+            if (bitboard.getHeight(col) != height || copy.getHeight(col) != height)
+                return step + ": column " + col + " height is " + bitboard.getHeight(col) + ", expected " + height;
+            
+            if (bitboard.getHoles(col) != reference.getHoles(col) || copy.getHoles(col) != reference.getHoles(col))
+                return step + ": column " + col + " holes are " + bitboard.getHoles(col) + ", expected " + reference.getHoles(col);
+            
+            aggregate += height;
+            holes += reference.getHoles(col);
+            
+            if (col > 0)
+                bumpiness += Math.abs(height - reference.getHeight(col - 1));
+            
+            this.checks++;
+        }
+        
+        if (field.getCompletedRowCount() != completed)
+            return step + ": completed rows are " + field.getCompletedRowCount() + ", expected " + completed;
+        
+        if (bitboard.getAggregateHeight() != aggregate || bitboard.getHoleCount() != holes || bitboard.getBumpiness() != bumpiness)
+            return step + ": board measurements differ";
+        
+        return null;
+    }
+}
@@ -252,8 +252,8 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
             //stop all audio while paused
             Audio.stop();
             
-            //flag the thread as paused
-            getThread().setPause(false);
+            //flag the thread as paused, it waits until the surface is back
+            getThread().setPause(true);
             
             //set the state
             getScreen().setState(State.Paused);
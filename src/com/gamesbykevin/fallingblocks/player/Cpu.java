@@ -1,8 +1,13 @@
 package com.gamesbykevin.fallingblocks.player;
 
-import com.gamesbykevin.fallingblocks.board.Board;
-import com.gamesbykevin.fallingblocks.board.BoardHelper;
-import com.gamesbykevin.fallingblocks.board.piece.Piece;
+import com.gamesbykevin.fallingblocks.ai.Moves;
+import com.gamesbykevin.fallingblocks.ai.Path;
+import com.gamesbykevin.fallingblocks.ai.Pilot;
+import com.gamesbykevin.fallingblocks.ai.Planner;
+import com.gamesbykevin.fallingblocks.ai.Search;
+import com.gamesbykevin.fallingblocks.ai.Weights;
+import com.gamesbykevin.fallingblocks.engine.Field;
+import com.gamesbykevin.fallingblocks.thread.MainThread;
 
 /**
  * A computer controlled player
@@ -10,30 +15,74 @@ import com.gamesbykevin.fallingblocks.board.piece.Piece;
  */
 public final class Cpu extends Player
 {
-    //do he have the destination
-    private boolean destination = false;
+    /**
+     * How many pieces the cpu places when scoring a placement, the current piece and the next piece
+     */
+    public static final int SEARCH_DEPTH = Search.DEPTH_NEXT;
     
-    //the target column we want the ai to move to
-    private int column;
+    /**
+     * How many of the best placements of the current piece are looked ahead with the next piece
+     */
+    public static final int SEARCH_BEAM_WIDTH = Search.BEAM_UNLIMITED;
     
-    //the target number of rotations
-    private int roationCount;
+    /**
+     * How many threads look ahead, one core is left for the game loop
+     */
+    public static final int SEARCH_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    
+    /**
+     * The portion of the drop delay the planner has before we use the quick search instead
+     */
+    public static final double PLANNER_DEADLINE_RATIO = 0.5;
     
-    //aggregate height score weight
-    private static final double WEIGHT_AGGREGATE_HEIGHT = -0.66569;
+    //moves the piece to the destination
+    private final Pilot pilot;
     
-    //completed lines score weight
-    private static final double WEIGHT_COMPLETED_LINES = 0.99275;
+    //finds the best place for each piece on a worker thread
+    private final Planner planner;
     
-    //holes score weight
-    private static final double WEIGHT_HOLES = -0.46544;
+    //the moves of the latest planner result
+    private final Path path;
     
-    //bumpi-ness score weight
-    private static final double WEIGHT_BUMPINESS = -0.24077;
+    //finds a place for the piece right away if the planner is too slow
+    private final Search search;
+    
+    //are we waiting on the planner
+    private boolean planning = false;
+    
+    //when did we ask the planner (nanoseconds)
+    private long planTime;
     
     public Cpu(final boolean multiplayer) throws Exception
     {
-        super(multiplayer, false);
+        this(multiplayer, Field.DEFAULT_COLS, Field.DEFAULT_ROWS);
+    }
+    
+    /**
+     * Create a cpu player
+     * @param multiplayer Are we playing multiplayer
+     * @param cols The number of columns on the board
+     * @param rows The number of rows on the board
+     * @throws Exception
+     */
+    public Cpu(final boolean multiplayer, final int cols, final int rows) throws Exception
+    {
+        super(multiplayer, false, cols, rows);
+        
+        //create the pilot that moves our piece
+        this.pilot = new Pilot(getBoard().getCols(), getBoard().getRows());
+        
+        //the weights used to score the board come from the profile
+        final Weights weights = Weights.load();
+        
+        //create the planner for our board size
+        this.planner = new Planner(getBoard().getCols(), getBoard().getRows(), SEARCH_DEPTH, SEARCH_BEAM_WIDTH, SEARCH_THREADS, weights);
+        this.path = new Path(Moves.getStates(getBoard().getCols(), getBoard().getRows()));
+        
+        //the fallback only looks at the current piece so it is quick
+        this.search = new Search(getBoard().getCols(), getBoard().getRows());
+        this.search.setDepth(Search.DEPTH_CURRENT);
+        this.search.setWeights(weights);
     }
     
     @Override
@@ -45,205 +94,160 @@ public final class Cpu extends Player
         //if the current piece does not exist, we don't have a destination
         if (getCurrent() == null)
         {
-            setDestination(false);
+            getPilot().reset();
+            
+            //let go of the previous piece inputs
+            setAction(null);
+            
+            //the previous piece is gone, so is its plan
+            if (isPlanning())
+            {
+                getPlanner().cancel();
+                setPlanning(false);
+            }
         }
         else
         {
             //do we have the destination for the current piece
-            if (!hasDestination())
-            {
-                //locate the best position
-                calculateDestination();
-            }
-            else
+            if (!getPilot().hasDestination())
             {
-                //if we are not at our target rotation yet
-                if (getCurrent().getRotation() != getTargetRotation())
-                {
-                    //rotate piece
-                    setAction(Action.MOVE_ROTATE);
-                }
-                else if (getCurrent().getCol() < getTargetColumn())
+                if (!isPlanning())
                 {
-                    //if we are short of our destination move east
-                    setAction(Action.MOVE_RIGHT);
-                }
-                else if (getCurrent().getCol() > getTargetColumn())
-                {
-                    //if we are past our destination move west
-                    setAction(Action.MOVE_LEFT);
+                    //ask the planner to locate the best position
+                    requestDestination();
                 }
                 else
                 {
-                    /**
-                     * The piece will drop here, don't need to do anything.<br>
-                     * We can force the piece to drop if single player cpu to speed up the game
-                     */
-                    if (!super.isMultiPlayer())
-                        setAction(Action.MOVE_DOWN);
+                    //check if the planner is done
+                    checkDestination();
                 }
             }
+            else
+            {
+                //replay the moves at our rate, we can force the piece to drop if single player cpu to speed up the game
+                setAction(getPilot().getAction(getCurrent(), !super.isMultiPlayer(), MainThread.CLOCK.getTime()));
+            }
         }
     }
     
     /**
-     * Here we determine the best place to put the block piece.<br>
-     * We will implement a scoring algorithm.<br>
-     * This will locate the position with the highest score as our destination
+     * Set how quick the cpu plays
+     * @param actionsPerSecond The most inputs made each second, Pilot.RATE_UNLIMITED to make one every update
      */
-    private void calculateDestination() throws Exception
+    public void setActionsPerSecond(final int actionsPerSecond)
     {
-        //get current location
-        final int originalCol = (int)getCurrent().getCol();
-        final int originalRow = (int)getCurrent().getRow();
-        
-        //store the score to beat
-        double score = 0;
-        
-        //in cases the score may be below 0 make sure we at least assign for the first score
-        boolean initialScore = true;
+        getPilot().setRate(actionsPerSecond);
+    }
+    
+    /**
+     * Ask the planner to find the best place to put the piece.<br>
+     * The planner works from a copy of the board, so the piece keeps falling while it searches
+     */
+    private void requestDestination()
+    {
+        getPlanner().request(
+            getBoard().getBitboard(), 
+            getCurrent().getType(), 
+            getCurrent().getRotation(), 
+            getCurrent().getCol(), 
+            getCurrent().getRow(), 
+            (getNext() != null) ? getNext().getType() : null
+        );
         
-        //check each rotation
-        for (int count = 0; count < Piece.TOTAL_ROTATIONS; count++)
+        //track when we asked, in game time because that is when the piece falls
+        this.planTime = MainThread.CLOCK.getTime();
+        setPlanning(true);
+    }
+    
+    /**
+     * Use the planner result if it is ready.<br>
+     * If the planner misses the deadline we search the current piece on this thread instead
+     */
+    private void checkDestination()
+    {
+        if (getPlanner().hasResult())
         {
-            //rotate piece clockwise each time
-            getCurrent().rotateClockwise();
+            //copy the moves, the planner reuses its own for the next request
+            getPlanner().copyPath(this.path);
             
-            //check each location
-            for (int col = 0; col < Board.COLS; col++)
-            {
-                for (int row = 0; row < Board.ROWS; row++)
-                {
-                    //set the starting point
-                    getCurrent().setCol(col);
-                    getCurrent().setRow(row);
-                    
-                    //if the piece is not in bounds here, continue
-                    if (!getCurrent().hasBounds())
-                        continue;
-                    
-                    //check until we hit floor or another block
-                    if (getCurrent().hasRow(Board.ROWS - 1) || getBoard().hasBlock(getCurrent()))
-                    {
-                        //if we hit a block move up 1 row
-                        if (getBoard().hasBlock(getCurrent()))
-                            getCurrent().decreaseRow();
-                        
-                        //if the piece is located above the top of the board
-                        if (getCurrent().hasRow(-1))
-                            continue;
-                        
-                        //if we still don't have bounds, continue
-                        if (!getCurrent().hasBounds())
-                            continue;
-                        
-                        //if a block already exists at the location of the place
-                        if (getBoard().hasBlock(getCurrent()))
-                            continue;
-                        
-                        //add piece to board
-                        getBoard().addTemp(getCurrent());
-                        
-                        //what is the score for placing the piece here
-                        double tmpScore = 0;
-                        
-                        //calculate/add aggregate height score
-                        tmpScore += (WEIGHT_AGGREGATE_HEIGHT * BoardHelper.getAggregateHeight(getBoard()));
-                        
-                        //calculate/add completed row(s) score
-                        tmpScore += (WEIGHT_COMPLETED_LINES * BoardHelper.getCompletedRowCount(getBoard()));
-                        
-                        //calculate/add hole count score
-                        tmpScore += (WEIGHT_HOLES * BoardHelper.getHoleCount(getBoard()));
-                        
-                        //calculate/add bumpiness score
-                        tmpScore += (WEIGHT_BUMPINESS * BoardHelper.getTotalBumpiness(getBoard()));
-
-                        //if this score is better than our high score, or we need to set the score to beat
-                        if (tmpScore > score || initialScore)
-                        {
-                            //we now have the initial score set
-                            initialScore = false;
-                            
-                            //set the new high score
-                            score = tmpScore;
-                            
-                            //set our target rotation
-                            setTargetRotation(getCurrent().getRotation());
-                            
-                            //set the column we want to place the piece
-                            setTargetColumn(col);
-                        }
-                        
-                        //now that we are done scoring we can remove the piece from the board
-                        getBoard().remove(getCurrent());
-                        
-                        //no need to check any further rows, exit loop to check the next column
-                        break;
-                    }
-                }
-            }
+            setDestination(getPlanner().hasFound(), this.path);
+        }
+        else if (MainThread.CLOCK.getTime() - this.planTime >= getDropDelay() * PLANNER_DEADLINE_RATIO)
+        {
+            //we can't wait any longer, stop the planner
+            getPlanner().cancel();
+            
+            //search a copy of the board so the game board and piece are not changed
+            final boolean found = getSearch().search(getBoard().getBitboard(), getCurrent().getType(), getCurrent().getRotation(), getCurrent().getCol(), getCurrent().getRow(), null);
+            
+            setDestination(found, getSearch().getPath());
         }
-        
-        //now restore location back
-        getCurrent().setCol(originalCol);
-        getCurrent().setRow(originalRow);
-        
-        //flag that we have a destination
-        setDestination(true);
     }
     
     /**
-     * Set the number of rotations for placing our piece
-     * @param rotations The total number of rotations needed to get to our goal
+     * Set the destination for the current piece
+     * @param found Was a placement found
+     * @param path The moves to the placement
      */
-    private void setTargetRotation(final int roationCount)
+    private void setDestination(final boolean found, final Path path)
     {
-        this.roationCount = roationCount;
+        getPilot().setDestination(found, path);
+        
+        //we are no longer waiting
+        setPlanning(false);
     }
     
     /**
-     * Get the number of rotations for placing our piece
-     * @return The total number of rotations needed to get to our goal
+     * Get the pilot
+     * @return The object that moves the piece to the destination
      */
-    private int getTargetRotation()
+    private Pilot getPilot()
     {
-        return this.roationCount;
+        return this.pilot;
     }
     
     /**
-     * Set the target column for placing our piece
-     * @param column The column we want to put our piece
+     * Get the planner
+     * @return The object that finds the best place for each piece on a worker thread
      */
-    private void setTargetColumn(final int column)
+    private Planner getPlanner()
     {
-        this.column = column;
+        return this.planner;
     }
     
     /**
-     * Get the target column for placing our piece
-     * @return The column we want to put our piece
+     * Are we waiting on the planner?
+     * @return true if the planner is searching for the current piece, false otherwise
      */
-    private int getTargetColumn()
+    private boolean isPlanning()
     {
-        return this.column;
+        return this.planning;
     }
-            
+    
     /**
-     * Do we have a destination?
-     * @return true if we have the location of the piece we want to place, false otherwise
+     * Set flag if we are waiting on the planner
+     * @param planning true if the planner is searching for the current piece, false otherwise
      */
-    private boolean hasDestination()
+    private void setPlanning(final boolean planning)
     {
-        return this.destination;
+        this.planning = planning;
     }
     
     /**
-     * Set flag if we have a destination
-     * @param destination true if we have found a destination, false otherwise
+     * Get the search
+     * @return The object that finds a place for the piece when the planner is too slow
      */
-    private void setDestination(final boolean destination)
+    private Search getSearch()
+    {
+        return this.search;
+    }
+    
+    @Override
+    public void dispose()
     {
-        this.destination = destination;
+        super.dispose();
+        
+        //stop the worker thread
+        getPlanner().stop();
     }
 }
\ No newline at end of file
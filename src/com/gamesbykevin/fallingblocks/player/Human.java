@@ -10,4 +10,16 @@ public final class Human extends Player
     {
         super(multiplayer, true);
     }
+    
+    /**
+     * Create a human player
+     * @param multiplayer Are we playing multiplayer
+     * @param cols The number of columns on the board
+     * @param rows The number of rows on the board
+     * @throws Exception
+     */
+    public Human(final boolean multiplayer, final int cols, final int rows) throws Exception
+    {
+        super(multiplayer, true, cols, rows);
+    }
 }
\ No newline at end of file
@@ -11,27 +11,31 @@ import com.gamesbykevin.fallingblocks.board.Board;
 import com.gamesbykevin.fallingblocks.board.BoardHelper;
 import com.gamesbykevin.fallingblocks.board.piece.Block;
 import com.gamesbykevin.fallingblocks.board.piece.Piece;
+import com.gamesbykevin.fallingblocks.engine.Action;
+import com.gamesbykevin.fallingblocks.engine.Event;
+import com.gamesbykevin.fallingblocks.engine.EventListener;
+import com.gamesbykevin.fallingblocks.engine.Field;
+import com.gamesbykevin.fallingblocks.engine.Simulation;
+import com.gamesbykevin.fallingblocks.panel.GamePanel;
 import com.gamesbykevin.fallingblocks.player.stats.Stats;
+import com.gamesbykevin.fallingblocks.thread.MainThread;
 
 /**
  * The player in the game.<br>
- * Each player has their own board
+ * Each player has their own board, the game itself is played by the simulation
  * @author GOD
  */
-public abstract class Player extends PlayerHelper implements IPlayer, Disposable
+public abstract class Player extends PlayerHelper implements IPlayer, Disposable, EventListener
 {
     //the board where pieces will fall
     private Board board;
     
-    //the current and next piece
-    private Piece current, next;
+    //plays the game on the board
+    private Simulation simulation;
     
     //our stats object
     private Stats stats;
     
-    //how bad is this player penalized?
-    private int penalty;
-    
     //are we playing multiplayer
     private final boolean multiplayer;
     
@@ -41,12 +45,26 @@ public abstract class Player extends PlayerHelper implements IPlayer, Disposable
     private static final int HUMAN_Y = 650;
     
     /**
-     * Create a new player
+     * Create a new player with a board of the regular size
      * @param multiplayer Are we playing multiplayer
      * @param human Is this player human?
      * @throws Exception
      */
     protected Player(final boolean multiplayer, final boolean human) throws Exception
+    {
+        this(multiplayer, human, Field.DEFAULT_COLS, Field.DEFAULT_ROWS);
+    }
+    
+    /**
+     * Create a new player.<br>
+     * The blocks of a larger board are smaller so the board takes the same space on the screen
+     * @param multiplayer Are we playing multiplayer
+     * @param human Is this player human?
+     * @param cols The number of columns on the board
+     * @param rows The number of rows on the board
+     * @throws Exception
+     */
+    protected Player(final boolean multiplayer, final boolean human, final int cols, final int rows) throws Exception
     {
         super(human);
         
@@ -60,10 +78,10 @@ public abstract class Player extends PlayerHelper implements IPlayer, Disposable
         if (multiplayer)
         {
             //determine size by human or not
-            setBlockDimension((human) ? Block.DIMENSION_REGULAR : Block.DIMENSION_SMALL);
+            setBlockDimension(getBlockDimension((human) ? Block.DIMENSION_REGULAR : Block.DIMENSION_SMALL, cols, rows));
             
             //create a new board
-            this.board = new Board(getBlockDimension());
+            this.board = new Board(getBlockDimension(), cols, rows);
             
             //the human and cpu will be placed accordingly
             if (isHuman())
@@ -79,7 +97,7 @@ public abstract class Player extends PlayerHelper implements IPlayer, Disposable
             else
             {
                 //position board
-                getBoard().setX((Block.DIMENSION_REGULAR * Board.COLS) + (START_X * 7.5));
+                getBoard().setX((Block.DIMENSION_REGULAR * Field.DEFAULT_COLS) + (START_X * 7.5));
                 getBoard().setY(getStats().getHeight() + (START_Y * 1));
 
                 //position stats
@@ -89,10 +107,10 @@ public abstract class Player extends PlayerHelper implements IPlayer, Disposable
         }
         else
         {
-            setBlockDimension(Block.DIMENSION_LARGE);
+            setBlockDimension(getBlockDimension(Block.DIMENSION_LARGE, cols, rows));
             
             //create a new board
-            this.board = new Board(getBlockDimension());
+            this.board = new Board(getBlockDimension(), cols, rows);
             
             //position board
             getBoard().setX(START_X);
@@ -106,34 +124,54 @@ public abstract class Player extends PlayerHelper implements IPlayer, Disposable
         //setup animations now the board has been created
         BoardHelper.assignAnimations(getBoard());
         
-        //store the previous piece drop time
-        resetTime();
+        //the simulation plays the game on our board
+        this.simulation = new Simulation(getBoard().getField(), MainThread.CLOCK, GamePanel.RANDOM);
+        this.simulation.setListener(this);
     }
     
     /**
-     * Has the player been penalized?
-     * @return true if there is at least 1 penalty, false otherwise
+     * Get the simulation
+     * @return The object that plays the game on our board
      */
-    protected boolean hasPenalty()
+    protected final Simulation getSimulation()
     {
-    	return (this.penalty > 0);
+        return this.simulation;
     }
     
     /**
-     * Reset the penalty
+     * Penalize the player
+     * @param penalty The number of lines to penalize
      */
-    protected void resetPenalty()
+    public void penalize(final int penalty)
     {
-    	this.penalty = 0;
+    	getSimulation().penalize(penalty);
     }
     
     /**
-     * Penalize the player
-     * @param penalty The number of lines to penalize
+     * Set the drop delay
+     * @param dropDelay The time to wait until we apply gravity
      */
-    public void penalize(final int penalty)
+    public void setDropDelay(final long dropDelay)
     {
-    	this.penalty += penalty;
+        getSimulation().setDropDelay(dropDelay);
+    }
+    
+    /**
+     * Get the drop delay
+     * @return The time to wait until we apply gravity
+     */
+    public long getDropDelay()
+    {
+        return getSimulation().getDropDelay();
+    }
+    
+    /**
+     * Assign the action
+     * @param action The desired player action
+     */
+    public void setAction(final Action action)
+    {
+        getSimulation().setAction(action);
     }
     
     protected boolean isMultiPlayer()
@@ -146,10 +184,7 @@ public abstract class Player extends PlayerHelper implements IPlayer, Disposable
     {
         getBoard().reset();
         getStats().reset();
-        setAction(null);
-        resetTime();
-        this.current = null;
-        this.next = null;
+        getSimulation().reset();
     }
     
     /**
@@ -161,39 +196,6 @@ public abstract class Player extends PlayerHelper implements IPlayer, Disposable
         return this.stats;
     }
     
-    /**
-     * Rotate the current piece
-     * @return true if the rotation was successful, false if the rotation caused block collision or out of bounds
-     */
-    public boolean rotate()
-    {
-        //make sure the current piece exists
-        if (getCurrent() != null)
-        {
-            //rotate clockwise
-            getCurrent().rotateClockwise();
-            
-            //if not in bounds, rotate backwards
-            if (!getCurrent().hasBounds() || getBoard().hasBlock(getCurrent()))
-            {
-                //rotate back
-                getCurrent().rotateCounterClockwise();
-                
-                //not successful
-                return false;
-            }
-            
-            //rotation was successful
-            return true;
-        }
-        else
-        {
-	        //no rotation occurred
-	        return false;
-        }
-    }
-    
-    
     /**
      * Get the player's board
      * @return The players board
@@ -203,52 +205,13 @@ public abstract class Player extends PlayerHelper implements IPlayer, Disposable
         return this.board;
     }
     
-    /**
-     * Create new pieces if they do not exist
-     * @throws Exception 
-     */
-    private void createPiece() throws Exception
-    {
-        if (getCurrent() == null)
-        {
-            if (getNext() != null)
-            {
-                //set default start
-                getNext().setCol(Board.START_COL);
-                getNext().setRow(Board.START_ROW);
-                
-                //assign to the current
-                this.current = getNext();
-                
-                //remove the next piece reference
-                removeNext();
-            }
-            else
-            {
-                //create a new piece
-                this.current = new Piece(Board.START_COL, Board.START_ROW, getBlockDimension());
-            }
-            
-            //reset timer
-            resetTime();
-            
-            //if the block is already occupied, the game is over
-            if (getBoard().hasBlock(getCurrent()))
-            	getBoard().setGameover(true);
-        }
-        
-        //render the next piece, if exists
-        if (getNext() == null)
-            this.next = new Piece(0, 0, getBlockDimension());
-    }
-    
     /**
      * Get the current piece
      * @return The current piece in play
      */
     protected Piece getCurrent()
     {
-        return this.current;
+        return getSimulation().getCurrent();
     }
     
     /**
@@ -257,23 +220,7 @@ public abstract class Player extends PlayerHelper implements IPlayer, Disposable
      */
     protected Piece getNext()
     {
-        return this.next;
-    }
-    
-    /**
-     * Remove the current piece
-     */
-    private void removeCurrent()
-    {
-        this.current = null;
-    }
-    
-    /**
-     * Remove the next piece
-     */
-    private void removeNext()
-    {
-        this.next = null;
+        return getSimulation().getNext();
     }
     
     /**
@@ -282,166 +229,51 @@ public abstract class Player extends PlayerHelper implements IPlayer, Disposable
      */
     public void update() throws Exception
     {
-        //if there are no completed rows
-        if (!getBoard().hasComplete())
+        //if we are out of health, the game is over
+        if (!getBoard().getField().hasComplete() && !getBoard().hasGameover() && getStats().getHealth() <= Stats.HEALTH_MIN)
         {
-            //if the game is over, don't continue
-            if (getBoard().hasGameover())
-                return;
-            
-            //if we are out of health, the game is over
-            if (getStats().getHealth() <= Stats.HEALTH_MIN)
-            {
-                //flag the game over
-                getBoard().setGameover(true);
-                
-                //no need to continue
-                return;
-            }
+            //flag the game over
+            getBoard().setGameover(true);
             
-            //make sure we have pieces
-            if (getCurrent() == null || getNext() == null)
-            {
-            	//if this player is penalized
-            	if (hasPenalty())
-            	{
-            		//add penalty
-            		BoardHelper.addPenalty(getBoard(), isHuman(), this.penalty);
-            		
-            		//turn penalty off
-            		resetPenalty();
-            	}
-            	else
-            	{
-                    //create the piece
-                    createPiece();
-            	}
-            }
-            else
-            {
-                //check to see if it is time to drop a piece
-                if (hasAction(Action.MOVE_DOWN) || System.nanoTime() - getTime() >= getDropDelay())
-                {
-                    //move the row down 1
-                    getCurrent().increaseRow();
-                    
-                    //reset timer
-                    resetTime();
-                    
-                    /**
-                     * If the piece is not in bounds or in collision with another block
-                     */
-                    if (!getCurrent().hasBounds() || getBoard().hasBlock(getCurrent()))
-                    {
-                        //move back up 1 row
-                        getCurrent().decreaseRow();
-                        
-                        //if the piece is still in collision with the board or not in bounds, we have game over
-                        if (getBoard().hasBlock(getCurrent()) || !getCurrent().hasBounds())
-                        {
-                            //flag game over
-                            getBoard().setGameover(true);
-                            
-                            //no need to continue
-                            return;
-                        }
-                        
-                        try
-                        {
-	                        //add piece to board
-	                        getBoard().add(getCurrent());
-                        }
-                        catch (ArrayIndexOutOfBoundsException e)
-                        {
-                        	//if there is an out of bounds exception the game is over
-                        	getBoard().setGameover(true);
-                        }
-                        
-                        //if there is at least 1 completed row, flag complete
-                        if (BoardHelper.getCompletedRowCount(getBoard()) > 0)
-                        {
-                            //mark blocks completed
-                            BoardHelper.markCompletedRows(getBoard());
-                            
-                            //set the board as complete
-                            getBoard().setComplete(true);
-                            
-                            //play sound effect
-                            Audio.play(Assets.AudioGameKey.CompletedLine);
-                        }
-                        else
-                        {
-                            //no completed line, play place piece sound effect
-                            Audio.play(Assets.AudioGameKey.PiecePlace);
-                        }
-                        
-                        //remove the current piece
-                        removeCurrent();
-                    }
-                }
-                else
-                {
-                    //check if we are moving
-                    if (hasAction(Action.MOVE_RIGHT))
-                    {
-                        //remove action
-                        setAction(null);
-                        
-                        //move the piece
-                        getCurrent().increaseCol();
-
-                        //If the piece is not in bounds or in collision with another block
-                        if (!getCurrent().hasBounds() || getBoard().hasBlock(getCurrent()))
-                            getCurrent().decreaseCol();
-                    }
-                    else if (hasAction(Action.MOVE_LEFT))
-                    {
-                        //remove action
-                        setAction(null);
-                        
-                        //move the piece
-                        getCurrent().decreaseCol();
-
-                        //If the piece is not in bounds or in collision with another block
-                        if (!getCurrent().hasBounds() || getBoard().hasBlock(getCurrent()))
-                            getCurrent().increaseCol();
-                    }
-                    else if (hasAction(Action.MOVE_ROTATE))
-                    {
-                        //remove action
-                        setAction(null);
-                        
-                        //rotate and if successful
-                        if (rotate())
-                        {
-                            //only play sound effect if human
-                            if (isHuman())
-                            {
-                                //play sound effect
-                                Audio.play(Assets.AudioGameKey.PieceRotate);
-                            }
-                        }
-                    }
-                }
-            }
+            //no need to continue
+            return;
         }
-        else
+        
+        //store the number of lines cleared
+        final int lines = getSimulation().getLines();
+        
+        //update the game
+        getSimulation().update();
+        
+        //update the completed lines count
+        if (lines != getSimulation().getLines())
+            getStats().setLines(getStats().getLines() + getSimulation().getLines() - lines);
+    }
+    
+    /**
+     * Play the sound effect for the event
+     * @param event The event that happened in the simulation
+     */
+    @Override
+    public void onEvent(final Event event)
+    {
+        switch (event)
         {
-            //check to see if the completed line timer is finished
-            if (System.nanoTime() - getBoard().getTime() >= Board.COMPLETED_LINE_DELAY)
-            {
-                //update the completed lines count
-                getStats().setLines(getStats().getLines() + BoardHelper.getCompletedRowCount(getBoard()));
-                
-                //clear the rows
-                BoardHelper.clearRows(getBoard());
+            case CompletedLine:
+                //play sound effect
+                Audio.play(Assets.AudioGameKey.CompletedLine);
+                break;
                 
-                //drop the pieces (if exists)
-                BoardHelper.dropBlocks(getBoard());
+            case PiecePlace:
+                //no completed line, play place piece sound effect
+                Audio.play(Assets.AudioGameKey.PiecePlace);
+                break;
                 
-                //remove the completed line(s) flag
-                getBoard().setComplete(false);
-            }
+            case PieceRotate:
+                //only play sound effect if human
+                if (isHuman())
+                    Audio.play(Assets.AudioGameKey.PieceRotate);
+                break;
         }
     }
     
@@ -454,16 +286,10 @@ public abstract class Player extends PlayerHelper implements IPlayer, Disposable
             board = null;
         }
         
-        if (current != null)
+        if (simulation != null)
         {
-            current.dispose();
-            current = null;
-        }
-        
-        if (next != null)
-        {
-            next.dispose();
-            next = null;
+            simulation.setListener(null);
+            simulation = null;
         }
         
         if (stats != null)
@@ -484,32 +310,12 @@ public abstract class Player extends PlayerHelper implements IPlayer, Disposable
         //make sure the board exists
         if (getBoard() != null)
         {
-            //draw the board background
-            getBoard().renderBackground(canvas);
-            
-            for (int row = 0; row < Board.ROWS; row++)
-            {
-                for (int col = 0; col < Board.COLS; col++)
-                {
-                    //get the current block
-                    final Block block = getBoard().getBlock(col, row);
-                    
-                    //if there is no block, there is nothing to render
-                    if (block == null)
-                        continue;
-                    
-                    //calculate coordinate
-                    final int x = (int)(getBoard().getX() + (block.getCol() * block.getWidth()));
-                    final int y = (int)(getBoard().getY() + (block.getRow() * block.getHeight()));
-                    
-                    //render block
-                    block.render(canvas, getBoard().getSpritesheet().get(block.getType()).getImage(), x, y);
-                }
-            }
+            //draw the board and the blocks placed on it
+            getBoard().render(canvas);
             
             //render the current piece, if exists
             if (getCurrent() != null)
-                getCurrent().render(canvas, getBoard());
+                getBoard().renderPiece(canvas, getCurrent());
             
             //render the player stats
             if (getStats() != null)
@@ -533,8 +339,25 @@ public abstract class Player extends PlayerHelper implements IPlayer, Disposable
                 	scale = 0.5f;
                 }
                 
-                getNext().render(canvas, getBoard(), scale, getStats().getOffsetX(), getStats().getOffsetY());
+                render(canvas, getNext(), scale, getStats().getOffsetX(), getStats().getOffsetY());
             }
         }
     }
+    
+    /**
+     * Render the piece at the specified starting location
+     * @param canvas Canvas to write pixel data
+     * @param piece The piece we want to render
+     * @param scale The ratio to resize the piece
+     * @param startX The desired starting x-coordinate of the piece
+     * @param startY The desired starting y-coordinate of the piece
+     */
+    private void render(final Canvas canvas, final Piece piece, final float scale, final int startX, final int startY)
+    {
+        //adjust dimensions
+        final int dimension = (int)(getBlockDimension() * scale);
+        
+        //render the blocks at their location in the piece
+        getBoard().getRenderer().render(canvas, piece, startX, startY, dimension);
+    }
 }
\ No newline at end of file
@@ -1,7 +1,8 @@
 package com.gamesbykevin.fallingblocks.player;
 
-import com.gamesbykevin.fallingblocks.board.Board;
-import java.util.UUID;
+import com.gamesbykevin.fallingblocks.engine.Field;
+
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The player helper class will contain common logic for the player
@@ -9,27 +10,13 @@ import java.util.UUID;
  */
 public abstract class PlayerHelper
 {
-    //the time of the previous piece drop
-    private long time;
-    
-    /**
-     * Different action's the player can make
-     */
-    public enum Action
-    {
-        MOVE_DOWN, MOVE_RIGHT, MOVE_LEFT, MOVE_ROTATE
-    }
-    
-    //the desired action
-    private Action action;
+    //the id of the last player created
+    private static final AtomicInteger IDS = new AtomicInteger();
     
     //default start location
     protected static final int START_X = 10;
     protected static final int START_Y = 10;
     
-    //the time to wait before dropping the piece
-    private long dropDelay = Board.COMPLETED_LINE_DELAY;
-    
     //the default dimension of a single block
     private int dimension;
     
@@ -37,7 +24,7 @@ public abstract class PlayerHelper
     private final boolean human;
     
     //the unique id for this entity
-    private final UUID id;
+    private final int id;
     
     /**
      * Create a new instance
@@ -48,15 +35,15 @@ public abstract class PlayerHelper
         //assign human status
         this.human = human;
         
-        //assign a random id
-        this.id = UUID.randomUUID();
+        //assign the next id
+        this.id = IDS.incrementAndGet();
     }
     
     /**
      * Get the id
      * @return The unique id that identifies this entity
      */
-    public UUID getId()
+    public int getId()
     {
         return this.id;
     }
@@ -66,9 +53,9 @@ public abstract class PlayerHelper
      * @param id The unique key we want to check
      * @return true if the id's match, false otherwise
      */
-    public boolean hasId(final UUID id)
+    public boolean hasId(final int id)
     {
-        return (getId().equals(id));
+        return (getId() == id);
     }
     
     
@@ -91,71 +78,18 @@ public abstract class PlayerHelper
     }
     
     /**
-     * Set the drop delay
-     * @param dropDelay The time to wait until we apply gravity
-     */
-    public void setDropDelay(final long dropDelay)
-    {
-        this.dropDelay = dropDelay;
-    }
-    
-    /**
-     * Get the drop delay
-     * @return The time to wait until we apply gravity
-     */
-    public long getDropDelay()
-    {
-        return this.dropDelay;
-    }
-    
-    /**
-     * Reset the timer, from the previous piece drop
-     */
-    protected void resetTime()
-    {
-        setTime(System.nanoTime());
-    }
-    
-    /**
-     * Assign the previous drop time.
-     * @param time The time of the previous piece drop (nanoseconds)
-     */
-    protected void setTime(final long time)
-    {
-        this.time = time;
-    }
-    
-    /**
-     * The start time of the previous piece drop
-     * @return The time of the previous piece drop (nanoseconds)
+     * Get the block dimension for a board so it fits where a regular board fits
+     * @param dimension The dimension (width/height) of a single block on a regular board
+     * @param cols The number of columns on the board
+     * @param rows The number of rows on the board
+     * @return The dimension of a single block, the same for a regular board and smaller for a larger one
      */
-    protected long getTime()
+    protected static final int getBlockDimension(final int dimension, final int cols, final int rows)
     {
-        return this.time;
-    }
-    
-    /**
-     * Does the user have the assigned action
-     * @param action Action to check
-     * @return true = yes, otherwise false
-     */
-    protected boolean hasAction(final Action action)
-    {
-        //if the action does not exist, return false
-        if (this.action == null)
-            return false;
+        final int width = (dimension * Field.DEFAULT_COLS) / cols;
+        final int height = (dimension * Field.DEFAULT_ROWS) / rows;
         
-        //check if the action is set
-        return (this.action == action);
-    }
-    
-    /**
-     * Assign the action
-     * @param action The desired player action
-     */
-    public void setAction(final Action action)
-    {
-        this.action = action;
+        return Math.max(1, Math.min(width, height));
     }
     
     /**
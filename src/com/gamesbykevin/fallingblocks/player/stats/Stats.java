@@ -37,6 +37,9 @@ public final class Stats extends Entity implements IStats
     //the text stat description
     private String statDescription;
     
+    //the stat text drawn, only created again when the stat changes
+    private String statText;
+    
     /**
      * Default dimension of stat window
      */
@@ -190,6 +193,9 @@ public final class Stats extends Entity implements IStats
     public final void setStatDescription(final String statDescription)
     {
         this.statDescription = statDescription;
+        
+        //the text has changed
+        this.statText = null;
     }
     
     /**
@@ -250,6 +256,10 @@ public final class Stats extends Entity implements IStats
      */
     public void setLines(final int lines)
     {
+        //the text only changes if the number does
+        if (this.lines != lines)
+            this.statText = null;
+        
         this.lines = lines;
     }
     
@@ -331,8 +341,12 @@ public final class Stats extends Entity implements IStats
         }
         else
         {
+            //create the text when the stat has changed
+            if (this.statText == null)
+                this.statText = getStatDescription() + ": " + getLines();
+            
             //draw stat
-            canvas.drawText(getStatDescription() + ": " + getLines(), (int)getX() + 12, (int)getY() + 145, getPaint());
+            canvas.drawText(this.statText, (int)getX() + 12, (int)getY() + 145, getPaint());
         }
     }
 }
\ No newline at end of file
@@ -41,7 +41,7 @@ public class OptionsScreen implements Screen, Disposable
     //buttons to access each button in the list
     public enum Key
     {
-    	Back, Sound, Vibrate, Difficulty, Mode, Instructions, Facebook, Twitter
+    	Back, Sound, Vibrate, Difficulty, Mode, Instructions, Facebook, Twitter, Size
     }
     
     /**
@@ -79,6 +79,21 @@ public class OptionsScreen implements Screen, Disposable
      */
     public static final int MODE_ATTACK = 4;
     
+    /**
+     * The regular 10x20 board
+     */
+    public static final int SIZE_REGULAR = 0;
+    
+    /**
+     * The large 12x24 board
+     */
+    public static final int SIZE_LARGE = 1;
+    
+    /**
+     * The huge 20x40 board
+     */
+    public static final int SIZE_HUGE = 2;
+    
     public OptionsScreen(final ScreenManager screen)
     {
         //our logo reference
@@ -115,6 +130,10 @@ public class OptionsScreen implements Screen, Disposable
         y += ScreenManager.BUTTON_Y_INCREMENT;
         addButtonDifficulty(x, y);
         
+        //add board size option
+        y += ScreenManager.BUTTON_Y_INCREMENT;
+        addButtonSize(x, y);
+        
         //the back button
         y += ScreenManager.BUTTON_Y_INCREMENT;
         addButtonBack(x, y);
@@ -203,6 +222,17 @@ public class OptionsScreen implements Screen, Disposable
         this.buttons.put(Key.Difficulty, button);
     }
     
+    private void addButtonSize(final int x, final int y)
+    {
+        Button button = new Button(Images.getImage(Assets.ImageMenuKey.Button));
+        button.addDescription("Board - Regular");
+        button.addDescription("Board - Large");
+        button.addDescription("Board - Huge");
+        button.setX(x);
+        button.setY(y);
+        this.buttons.put(Key.Size, button);
+    }
+    
     private void addButtonBack(final int x, final int y)
     {
         Button button = new Button(Images.getImage(Assets.ImageMenuKey.Button));
@@ -274,6 +304,7 @@ public class OptionsScreen implements Screen, Disposable
 						case Difficulty:
 						case Mode:
 						case Vibrate:
+						case Size:
 							button.positionText(paint);
 							break;
 							
@@ -365,6 +396,7 @@ public class OptionsScreen implements Screen, Disposable
 					case Difficulty:
 					case Mode:
 					case Vibrate:
+					case Size:
     					
     					//change index
     					button.setIndex(button.getIndex() + 1);
@@ -443,6 +475,7 @@ public class OptionsScreen implements Screen, Disposable
 	    			case Mode:
 					case Vibrate:
 	    			case Difficulty:
+	    			case Size:
 	    				buttons.get(key).render(canvas, paint);
 	    				break;
 	    				
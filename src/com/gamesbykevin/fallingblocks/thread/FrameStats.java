@@ -0,0 +1,84 @@
+package com.gamesbykevin.fallingblocks.thread;
+
+/**
+ * The time between the frames drawn.<br>
+ * The jitter is how far the frame times are from the average, an even frame pace has a jitter close to 0
+ * @author GOD
+ */
+final class FrameStats
+{
+    //the number of frames measured
+    private int count = 0;
+    
+    //the total of the frame times and their squares (nanoseconds)
+    private double total = 0, squares = 0;
+    
+    //the longest frame time (nanoseconds)
+    private long worst = 0;
+    
+    /**
+     * Add the time of a single frame
+     * @param time The time since the previous frame (nanoseconds)
+     */
+    void add(final long time)
+    {
+        this.count++;
+        this.total += time;
+        this.squares += (double)time * time;
+        
+        if (time > this.worst)
+            this.worst = time;
+    }
+    
+    /**
+     * Forget the frames measured
+     */
+    void reset()
+    {
+        this.count = 0;
+        this.total = 0;
+        this.squares = 0;
+        this.worst = 0;
+    }
+    
+    /**
+     * Get the number of frames
+     * @return The number of frames measured
+     */
+    int getCount()
+    {
+        return this.count;
+    }
+    
+    /**
+     * Get the average frame time
+     * @return The average time between frames (nanoseconds)
+     */
+    double getMean()
+    {
+        return (this.count == 0) ? 0 : this.total / this.count;
+    }
+    
+    /**
+     * Get the jitter
+     * @return The standard deviation of the frame times (nanoseconds)
+     */
+    double getJitter()
+    {
+        if (this.count == 0)
+            return 0;
+        
+        final double mean = getMean();
+        
+        return Math.sqrt(Math.max(0, (this.squares / this.count) - (mean * mean)));
+    }
+    
+    /**
+     * Get the longest frame time
+     * @return The longest time between frames (nanoseconds)
+     */
+    long getWorst()
+    {
+        return this.worst;
+    }
+}
@@ -1,8 +1,11 @@
 package com.gamesbykevin.fallingblocks.thread;
 
 import android.graphics.Canvas;
+import android.os.Build;
 import android.view.SurfaceHolder;
 import com.gamesbykevin.androidframework.anim.Animation;
+import com.gamesbykevin.fallingblocks.engine.Simulation;
+import com.gamesbykevin.fallingblocks.engine.StepClock;
 import com.gamesbykevin.fallingblocks.panel.GamePanel;
 
 /**
@@ -16,8 +19,32 @@ public class MainThread extends Thread
      */
     public static final boolean DEBUG = true;
     
-    //the assigned frames per second for this game
-    public static final int FPS = 30;
+    /**
+     * The game time, it only moves forward one tick each time the game is updated
+     */
+    public static final StepClock CLOCK = new StepClock();
+    
+    /**
+     * The most updates in a row before we draw again, if we are further behind the extra time is dropped
+     */
+    public static final int MAX_UPDATES_PER_FRAME = 5;
+    
+    /**
+     * How early an update can run to stay in step with the display, a portion of a tick.<br>
+     * The display and the updates both run near 60 per second, without this a frame that arrives a little early
+     * gets no update and the next one gets 2, which looks like a stutter
+     */
+    public static final long TICK_TOLERANCE = Simulation.TICK / 8;
+    
+    /**
+     * The time between frames when the display can't tell us (nanoseconds)
+     */
+    public static final long FRAME_INTERVAL = Simulation.TICK;
+    
+    /**
+     * The longest we wait for the display before we check the thread again (milliseconds)
+     */
+    public static final long FRAME_TIMEOUT = 100;
     
     //our game panel
     private final GamePanel panel;
@@ -26,7 +53,7 @@ public class MainThread extends Thread
     private final SurfaceHolder holder;
     
     //is the thread running
-    private boolean running;
+    private volatile boolean running;
     
     //our canvas to render image(s)
     private Canvas canvas;
@@ -38,8 +65,29 @@ public class MainThread extends Thread
     public static final int COMPLETE_THREAD_ATTEMPTS = 1000;
     
     //do we pause the update/render
-    private boolean pause = false;
+    private volatile boolean pause = false;
+    
+    //the thread waits on this for frames and while paused
+    private final Object lock = new Object();
+    
+    //tells us when the display wants a frame, null if the device does not have a choreographer
+    private final Vsync vsync;
+    
+    //the time of the latest display frame, and is it new
+    private long frameTime;
+    private boolean frame = false;
     
+    //when the next frame is due if we don't have the display frames
+    private long deadline;
+    
+    //the time between the frames drawn
+    private final FrameStats stats = new FrameStats();
+    
+    /**
+     * Create the thread, this has to be called on the ui thread so the display frames are sent there
+     * @param holder Area where game play is rendered
+     * @param panel Our game panel
+     */
     public MainThread(SurfaceHolder holder, GamePanel panel)
     {
     	//call parent constructor
@@ -50,113 +98,121 @@ public class MainThread extends Thread
         
         //assign game panel reference object
         this.panel = panel;
+        
+        //follow the display if we can, otherwise we keep our own time
+        this.vsync = (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) ? new Vsync(this) : null;
     }
     
+    /**
+     * The game is updated at a fixed rate no matter how long it takes to draw.<br>
+     * Each display frame the time that passed is spent in whole ticks, then the game is drawn once.
+     * When drawing is slow several updates run before the next draw, so the game keeps the same speed,
+     * and when the display is faster than the updates every frame is still drawn.
+     * The blocks only move a whole cell at a time, so a frame between 2 updates is drawn the same instead of in between.<br>
+     * The thread waits for the display between frames and while paused, it does not sleep or spin
+     */
     @Override
     public void run()
     {
-        //track total time elapsed to calculate fps
-        long totalTime = 0;
+        //the time that passed but has not been spent on updates yet
+        long lag = 0;
         
-        //the frame count
-        int frames = 0;
+        //the time of the previous frame
+        long previous = System.nanoTime();
         
-        //the expected amount of time per each update
-        final long targetTime = (Animation.MILLISECONDS_PER_SECOND / FPS);
+        //when the previous frame was drawn
+        long drawn = 0;
+        
+        //track the updates and draws to calculate the rates
+        long totalTime = 0;
+        int updates = 0;
+        
+        this.deadline = previous;
         
         try
         {
             //continue to loop while the thread is running
             while (isRunning())
             {
-            	//if the game is paused we won't continue
+            	//if the game is paused wait until it is not
             	if (isPaused())
+            	{
+            		waitWhilePaused();
+            		
+            		//the time paused does not need to be caught up
+            		previous = System.nanoTime();
+            		this.deadline = previous;
+            		lag = 0;
+            		drawn = 0;
             		continue;
+            	}
             	
-                //get the start time of this update
-                final long startTime = System.nanoTime();
-
-                //assign the canvas null
-                setCanvas(null);
-
-                try 
-                {
-                    //attempt to lock the canvas to edit the pixels of the surface
-                	setCanvas(getHolder().lockCanvas());
-
-                    //make sure no other threads are accessing the holder
-                    synchronized (getHolder())
-                    {
-                        //update our game panel
-                        getPanel().update();
-
-                        //if the canvas object was obtained and we did not pause, render
-                        if (getCanvas() != null && !isPaused())
-                            getPanel().draw(getCanvas());
-                    }
-                }
-                catch (Exception e)
-                {
-                    e.printStackTrace();
-                }
-                finally 
-                {
-                    //remove the lock (if possible)
-                    if (getCanvas() != null)
-                    {
-                        try
-                        {
-                            //render the pixels on the canvas to the screen
-                        	getHolder().unlockCanvasAndPost(getCanvas());
-                        }
-                        catch (Exception e)
-                        {
-                            e.printStackTrace();
-                        }
-                    }
-                }
-
-                //calculate the number of milliseconds elapsed
-                final long timeMillis = (System.nanoTime() - startTime) / Animation.NANO_SECONDS_PER_MILLISECOND;
-
-                //determine the amount of time to sleep
-                long waitTime = targetTime - timeMillis;
-
-                //make sure the wait time is at least 1 millisecond
-                if (waitTime < 1)
-                    waitTime = 1;
+                //wait for the display to want the next frame
+                final long time = waitForFrame();
                 
-                try
+                //we may have been paused or stopped while waiting
+                if (!isRunning() || isPaused())
+                	continue;
+                
+                //the time since the previous frame
+                final long elapsed = time - previous;
+                previous = time;
+                lag += elapsed;
+                
+                //if we are too far behind let the extra time go, the game slows down instead of freezing to catch up
+                if (lag > MAX_UPDATES_PER_FRAME * Simulation.TICK)
+                    lag = MAX_UPDATES_PER_FRAME * Simulation.TICK;
+                
+                //the number of updates this frame
+                int count = 0;
+                
+                //spend the time in whole ticks
+                while (lag >= Simulation.TICK - TICK_TOLERANCE && isRunning() && !isPaused())
                 {
-                    //sleep the thread
-                    sleep(waitTime);
+                    update();
+                    
+                    lag -= Simulation.TICK;
+                    count++;
                 }
-                catch (Exception e)
+                
+                //draw every display frame, on a display faster than the updates a frame can have no update
+                if (!isPaused())
                 {
-                    e.printStackTrace();
+                    render();
+                    
+                    //measure the time between the frames on the screen
+                    final long now = System.nanoTime();
+                    
+                    if (drawn != 0)
+                    	this.stats.add(now - drawn);
+                    
+                    drawn = now;
                 }
-
-                //if we are debugging, print the fps
+                
+                updates += count;
+                
+                //if we are debugging, print the rates
                 if (DEBUG)
                 {
                     //calculate the total time passed
-                    totalTime += System.nanoTime() - startTime;
-
-                    //increase the frame count
-                    frames++;
-
-                    //if the frame count = the assigned fps
-                    if (frames == FPS)
+                    totalTime += elapsed;
+                    
+                    //every second
+                    if (totalTime >= Animation.NANO_SECONDS_PER_MILLISECOND * Animation.MILLISECONDS_PER_SECOND)
                     {
-                        //calculate the average fps
-                        final double fpsAverage = (double)Animation.MILLISECONDS_PER_SECOND / ((double)(totalTime / frames) / Animation.NANO_SECONDS_PER_MILLISECOND);
-
+                        final double seconds = (double)totalTime / (Animation.NANO_SECONDS_PER_MILLISECOND * Animation.MILLISECONDS_PER_SECOND);
+                        final double millis = Animation.NANO_SECONDS_PER_MILLISECOND;
+                        
+                        //display the averages
+                        System.out.println(
+                            "Average FPS " + (this.stats.getCount() / seconds) + ", UPS " + (updates / seconds) + 
+                            ", frame " + (this.stats.getMean() / millis) + " ms, jitter " + (this.stats.getJitter() / millis) + 
+                            " ms, worst " + (this.stats.getWorst() / millis) + " ms");
+                        
                         //reset these values
-                        frames = 0;
+                        this.stats.reset();
+                        updates = 0;
                         totalTime = 0;
-
-                        //display the average
-                        System.out.println("Average FPS " + fpsAverage);
                     }
                 }
             }
@@ -167,19 +223,170 @@ public class MainThread extends Thread
         }
         finally 
         {
+        	//we don't want any more frames
+        	if (this.vsync != null)
+        		this.vsync.cancel();
+	        
 	        //stop thread
 	        this.setRunning(false);
         }
     }
     
+    /**
+     * Wait until the game is no longer paused or the thread is stopped
+     * @throws InterruptedException
+     */
+    private void waitWhilePaused() throws InterruptedException
+    {
+        synchronized (this.lock)
+        {
+            while (isPaused() && isRunning())
+            {
+                this.lock.wait();
+            }
+        }
+    }
+    
+    /**
+     * Wait until the next frame is due.<br>
+     * With a choreographer this is the next display frame, otherwise the next frame is due
+     * a frame interval after the previous one so a late wake up does not push every frame back
+     * @return The time of the frame (nanoseconds)
+     * @throws InterruptedException
+     */
+    private long waitForFrame() throws InterruptedException
+    {
+        synchronized (this.lock)
+        {
+            if (this.vsync != null)
+            {
+                //ask for the next display frame
+                this.frame = false;
+                this.vsync.request();
+                
+                while (!this.frame && isRunning() && !isPaused())
+                {
+                    this.lock.wait(FRAME_TIMEOUT);
+                }
+                
+                return (this.frame) ? this.frameTime : System.nanoTime();
+            }
+            
+            this.deadline += FRAME_INTERVAL;
+            
+            long now = System.nanoTime();
+            
+            //if we are already late the next frame is due now
+            if (this.deadline < now)
+                this.deadline = now;
+            
+            while (now < this.deadline && isRunning() && !isPaused())
+            {
+                final long remaining = this.deadline - now;
+                
+                this.lock.wait(remaining / Animation.NANO_SECONDS_PER_MILLISECOND, (int)(remaining % Animation.NANO_SECONDS_PER_MILLISECOND));
+                
+                now = System.nanoTime();
+            }
+            
+            return now;
+        }
+    }
+    
+    /**
+     * The display is ready for a frame, sent by the choreographer on the ui thread
+     * @param frameTimeNanos The time the frame started (nanoseconds)
+     */
+    void onFrame(final long frameTimeNanos)
+    {
+        synchronized (this.lock)
+        {
+            this.frameTime = frameTimeNanos;
+            this.frame = true;
+            this.lock.notifyAll();
+        }
+    }
+    
+    /**
+     * Update the game a single tick and move the game time forward
+     */
+    private void update()
+    {
+        try
+        {
+            //make sure no other threads are accessing the holder
+            synchronized (getHolder())
+            {
+                //update our game panel
+                getPanel().update();
+            }
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+        }
+        
+        //the game time moves the same amount each update
+        CLOCK.advance(Simulation.TICK);
+    }
+    
+    /**
+     * Draw the game
+     */
+    private void render()
+    {
+        //assign the canvas null
+        setCanvas(null);
+        
+        try 
+        {
+            //attempt to lock the canvas to edit the pixels of the surface
+        	setCanvas(getHolder().lockCanvas());
+            
+            //make sure no other threads are accessing the holder
+            synchronized (getHolder())
+            {
+                //if the canvas object was obtained and we did not pause, render
+                if (getCanvas() != null && !isPaused())
+                    getPanel().draw(getCanvas());
+            }
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+        }
+        finally 
+        {
+            //remove the lock (if possible)
+            if (getCanvas() != null)
+            {
+                try
+                {
+                    //render the pixels on the canvas to the screen
+                	getHolder().unlockCanvasAndPost(getCanvas());
+                }
+                catch (Exception e)
+                {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+    
     /**
      * Set the pause flag.<br>
-     * If we are pausing the game we will make sure the canvas is not locked
+     * While paused the thread waits and uses no time, the canvas is not locked
      * @param pause true if you want to prevent the game panel update and render, false otherwise
      */
     public void setPause(final boolean pause)
     {
-    	this.pause = pause;
+    	synchronized (this.lock)
+    	{
+    		this.pause = pause;
+    		
+    		//wake the thread so it can pause or continue
+    		this.lock.notifyAll();
+    	}
     }
     
     /**
@@ -197,7 +404,13 @@ public class MainThread extends Thread
      */
     public void setRunning(final boolean running)
     {
-        this.running = running;
+        synchronized (this.lock)
+        {
+            this.running = running;
+            
+            //wake the thread so it can finish
+            this.lock.notifyAll();
+        }
     }
     
     /**
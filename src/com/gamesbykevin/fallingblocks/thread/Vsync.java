@@ -0,0 +1,51 @@
+package com.gamesbykevin.fallingblocks.thread;
+
+import android.view.Choreographer;
+
+/**
+ * Tells the main thread when the display is ready for the next frame.<br>
+ * A callback is only requested when the main thread is waiting for a frame, so nothing runs while the game is paused.<br>
+ * The choreographer was added in Jelly Bean, only create this when it exists
+ * @author GOD
+ */
+final class Vsync implements Choreographer.FrameCallback
+{
+    //the thread told about each frame
+    private final MainThread thread;
+    
+    //sends the display frames
+    private final Choreographer choreographer;
+    
+    /**
+     * Create a new vsync.<br>
+     * This has to be created on a thread with a looper, the callbacks are sent to that thread
+     * @param thread The thread told about each frame
+     */
+    Vsync(final MainThread thread)
+    {
+        this.thread = thread;
+        this.choreographer = Choreographer.getInstance();
+    }
+    
+    /**
+     * Ask to be told about the next frame, this can be called from any thread
+     */
+    void request()
+    {
+        this.choreographer.postFrameCallback(this);
+    }
+    
+    /**
+     * Stop waiting for the next frame, this can be called from any thread
+     */
+    void cancel()
+    {
+        this.choreographer.removeFrameCallback(this);
+    }
+    
+    @Override
+    public void doFrame(final long frameTimeNanos)
+    {
+        this.thread.onFrame(frameTimeNanos);
+    }
+}